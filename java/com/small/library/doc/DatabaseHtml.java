@@ -50,7 +50,9 @@ public class DatabaseHtml
 	
 			startDoc(metadata);
 	
-			table.create(writer, rows);
+			final HtmlWriter html = new HtmlWriter(writer);
+			table.create(html, rows);
+			html.flush();
 	
 			endDoc(metadata);
 	
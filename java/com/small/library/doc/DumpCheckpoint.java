@@ -0,0 +1,164 @@
+package com.small.library.doc;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Properties;
+
+import com.small.library.generator.BaseTable;
+import com.small.library.metadata.*;
+
+/***************************************************************************************
+*
+*	Records the progress of a resumable table dump. Holds the last primary key written
+*	for each table, the number of rows written, whether the table is complete, and the
+*	length of each output file as of the last checkpoint. A restarted dump truncates the
+*	output file back to that length and continues after the last key.
+*
+*	@author David Small
+*	@version 4.0
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public class DumpCheckpoint
+{
+	private static final String SUFFIX_KEY = ".key.";
+	private static final String SUFFIX_ROWS = ".rows";
+	private static final String SUFFIX_COMPLETE = ".complete";
+	private static final String PREFIX_OFFSET = "offset.";
+
+	private final File file;
+	private final Properties properties = new Properties();
+
+	/** Constructor - constructs an empty checkpoint.
+		@param file The checkpoint file.
+	*/
+	private DumpCheckpoint(final File file)
+	{
+		this.file = file;
+	}
+
+	/** Helper method - loads the checkpoint file. An empty checkpoint is returned if the file does not exist.
+		@param file The checkpoint file.
+	*/
+	public static DumpCheckpoint load(final File file) throws IOException
+	{
+		final DumpCheckpoint o = new DumpCheckpoint(file);
+		if (file.isFile())
+		{
+			try (final InputStream in = new BufferedInputStream(new FileInputStream(file)))
+			{
+				o.properties.load(in);
+			}
+		}
+
+		return o;
+	}
+
+	/** Accessor method - gets the checkpoint file. */
+	public File getFile() { return file; }
+
+	/** Accessor method - gets the last primary key written for a table.
+		@return the key column values in primary key order. NULL if the table has not been started.
+	*/
+	public synchronized String[] getKey(final Table table)
+	{
+		final String prefix = getName(table) + SUFFIX_KEY;
+		int size = 0;
+		while (properties.containsKey(prefix + size)) size++;
+
+		if (0 == size) return null;
+
+		final String[] o = new String[size];
+		for (int i = 0; i < size; i++)
+			o[i] = properties.getProperty(prefix + i);
+
+		return o;
+	}
+
+	/** Accessor method - gets the number of rows written for a table. */
+	public synchronized long getRows(final Table table)
+	{
+		return Long.parseLong(properties.getProperty(getName(table) + SUFFIX_ROWS, "0"));
+	}
+
+	/** Accessor method - indicates whether the table has been completely written. */
+	public synchronized boolean isComplete(final Table table)
+	{
+		return properties.containsKey(getName(table) + SUFFIX_COMPLETE);
+	}
+
+	/** Mutator method - records a chunk of rows written for a table and saves the checkpoint.
+		@param table The table.
+		@param key The last primary key written.
+		@param rows The total number of rows written for the table.
+		@param output The output file. Must be flushed so that its length includes the chunk.
+	*/
+	public synchronized void update(final Table table, final String[] key, final long rows, final File output)
+		throws IOException
+	{
+		final String name = getName(table);
+		for (int i = 0; i < key.length; i++)
+			properties.setProperty(name + SUFFIX_KEY + i, key[i]);
+		properties.setProperty(name + SUFFIX_ROWS, Long.toString(rows));
+		properties.setProperty(PREFIX_OFFSET + output.getName(), Long.toString(output.length()));
+
+		save();
+	}
+
+	/** Mutator method - marks a table as completely written and saves the checkpoint.
+		@param table The table.
+		@param rows The total number of rows written for the table.
+		@param output The output file. Must be flushed so that its length includes the whole table.
+	*/
+	public synchronized void complete(final Table table, final long rows, final File output)
+		throws IOException
+	{
+		final String name = getName(table);
+		properties.setProperty(name + SUFFIX_ROWS, Long.toString(rows));
+		properties.setProperty(name + SUFFIX_COMPLETE, Boolean.TRUE.toString());
+		properties.setProperty(PREFIX_OFFSET + output.getName(), Long.toString(output.length()));
+
+		save();
+	}
+
+	/** Helper method - opens an output file for appending after truncating any partial chunk written
+	    since the last checkpoint. A file without a checkpoint is started over.
+		@param output The output file.
+		@param bufferSize Size of the output buffer in characters.
+	*/
+	public synchronized PrintWriter open(final File output, final int bufferSize) throws IOException
+	{
+		final String value = properties.getProperty(PREFIX_OFFSET + output.getName());
+		final long offset = (null != value) ? Long.parseLong(value) : 0L;
+		if (output.length() < offset)
+			throw new IOException("The output file '" + output + "' is shorter than its checkpoint. Delete '" + file + "' to start over.");
+
+		try (final RandomAccessFile raf = new RandomAccessFile(output, "rw"))
+		{
+			raf.setLength(offset);
+		}
+
+		return new PrintWriter(new BufferedWriter(new FileWriter(output, true), bufferSize));
+	}
+
+	/** Helper method - writes the checkpoint to a temporary file and then moves it into place so that
+	    an interrupted save leaves the previous checkpoint intact.
+	*/
+	private void save() throws IOException
+	{
+		final File temp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+		try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(temp)))
+		{
+			properties.store(out, "Generated by " + TablesDump.class.getName() + ". Delete to restart the dump.");
+		}
+
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/** Helper method - gets the property name prefix of a table. */
+	private String getName(final Table table)
+	{
+		return BaseTable.getTableFileName(table, "");
+	}
+}
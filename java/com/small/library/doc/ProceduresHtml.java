@@ -5,6 +5,7 @@ import static com.small.library.generator.Base.*;
 import java.io.*;
 import java.sql.*;
 import java.util.List;
+import java.util.Map;
 
 import javax.sql.DataSource;
 
@@ -25,6 +26,7 @@ public class ProceduresHtml
 {
 	private final DBMetadata metadata;
 	private final PrintWriter writer;
+	private Map<String, List<Parameter>> parameters = null;	// Parameters of all the procedures. Loaded by run().
 
 	/** Constructor - constructs a populated object.
 		@param dataSource The database connection's connection factory.
@@ -106,12 +108,16 @@ public class ProceduresHtml
 	public void run()
 		throws SQLException, IOException
 	{
-		final List<Procedure> procedures = metadata.getProcedures();
+		try (var _ = metadata.openSession())
+		{
+			final List<Procedure> procedures = metadata.getProcedures();
+			parameters = metadata.getParameters();
 
-		writeHeader();
-		writeContents(procedures);
-		run(procedures);
-		writeFooter();
+			writeHeader();
+			writeContents(procedures);
+			run(procedures);
+			writeFooter();
+		}
 	}
 
 	public void writeHeader() throws SQLException, IOException
@@ -174,13 +180,22 @@ public class ProceduresHtml
 	{
 		writeLine("<DIV STYLE=\"page-break-before:always\">");
 		writeLine(createName(procedure.name, "<H2>" + procedure.name + "</H2>"));
-		runParams(metadata.getParameters(procedure));
+		runParams(getParameters(procedure));
 
 		writeBreak();
 		writeLine(createLink("#Contents", "Goto Contents"));
 		writeLine("</DIV>");
 	}
 
+	/** Helper method - gets the parameters of a procedure from the bulk load if available. */
+	public List<Parameter> getParameters(final Procedure procedure) throws SQLException
+	{
+		if (null == parameters)
+			return metadata.getParameters(procedure);
+
+		return parameters.getOrDefault(SchemaSnapshot.key(procedure.schema, procedure.name), List.of());
+	}
+
 	public void runParams(List<Parameter> parameters) throws SQLException, IOException
 	{
 		openTable();
@@ -0,0 +1,367 @@
+package com.small.library.doc;
+
+import java.io.*;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import com.small.library.generator.*;
+import com.small.library.metadata.*;
+
+/***************************************************************************************
+*
+*	Copies the contents of database tables from a source data source directly into a
+*	target data source without an intermediate file. Rows are streamed from a single
+*	cursor on the source and handed in batches to one or more writers, each of which
+*	inserts with a batched <I>PreparedStatement</I> on its own target connection.
+*
+*	Each writer commits independently every <CODE>commitInterval</CODE> rows, so a
+*	failed copy leaves the committed rows in the target table.
+*
+*	@author David Small
+*	@version 4.0
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public class TablesCopy extends BaseTable
+{
+	public static final int BATCH_SIZE_DEFAULT = 1000;	// Number of rows per JDBC batch. Also the fetch size of the source cursor.
+	public static final int COMMIT_INTERVAL_DEFAULT = 10000;	// Number of rows each writer inserts per transaction.
+	public static final int WRITERS_DEFAULT = 1;	// Number of concurrent writers per table.
+
+	/** Marks the end of the rows for a writer. */
+	private static final Object[][] END = new Object[0][];
+
+	private final DataSource dataSource;
+	private final DataSource target;
+	private final String targetSchema;
+	private final int batchSize;
+	private final int commitInterval;
+	private final int writers;
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream of the summary of each table copied.
+		@param dataSource Source data source.
+		@param target Target data source. Should be pooled with at least <CODE>writers</CODE> connections.
+		@param targetSchema Optional schema name of the target tables.
+		@param batchSize Number of rows per JDBC batch.
+		@param commitInterval Number of rows each writer inserts per transaction.
+		@param writers Number of concurrent writers.
+	*/
+	public TablesCopy(final PrintWriter writer, final DataSource dataSource, final DataSource target,
+		final String targetSchema, final int batchSize, final int commitInterval, final int writers)
+	{
+		this(writer, null, dataSource, target, targetSchema, batchSize, commitInterval, writers);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream of the summary of each table copied.
+		@param table A table record object to base the output on.
+		@param dataSource Source data source.
+		@param target Target data source. Should be pooled with at least <CODE>writers</CODE> connections.
+		@param targetSchema Optional schema name of the target tables.
+			If not provided, will use the schema of the source table.
+		@param batchSize Number of rows per JDBC batch.
+		@param commitInterval Number of rows each writer inserts per transaction.
+		@param writers Number of concurrent writers.
+	*/
+	public TablesCopy(final PrintWriter writer, final Table table, final DataSource dataSource, final DataSource target,
+		final String targetSchema, final int batchSize, final int commitInterval, final int writers)
+	{
+		super(writer, null, table);
+		this.dataSource = dataSource;
+		this.target = target;
+		this.targetSchema = targetSchema;
+		this.batchSize = Math.max(batchSize, 1);
+		this.commitInterval = Math.max(commitInterval, this.batchSize);
+		this.writers = Math.max(writers, 1);
+	}
+
+	/** Accessor method - gets the number of rows per JDBC batch. */
+	public int getBatchSize() { return batchSize; }
+
+	/** Accessor method - gets the number of rows each writer inserts per transaction. */
+	public int getCommitInterval() { return commitInterval; }
+
+	/** Accessor method - gets the number of concurrent writers. */
+	public int getWriters() { return writers; }
+
+	@Override
+	public void generate() throws GeneratorException, IOException
+	{
+		final Table table = getTable();
+		final String schema = (null != targetSchema) ? targetSchema : table.schema;
+		final ColumnInfo[] columns;
+		try { columns = getColumnInfo(); }
+		catch (final SQLException ex) { throw new GeneratorException(ex); }
+
+		// Get the SELECT statement and the parameterized INSERT statement.
+		final StringBuilder select = new StringBuilder("SELECT ");
+		final StringBuilder insert = new StringBuilder("INSERT INTO ").append((null != schema) ? schema + "." + table.name : table.name).append(" (");
+		final StringBuilder values = new StringBuilder(") VALUES (");
+		for (int i = 0; i < columns.length; i++)
+		{
+			if (0 < i)
+			{
+				select.append(", ");
+				insert.append(", ");
+				values.append(", ");
+			}
+
+			select.append(columns[i].columnName);
+			insert.append(columns[i].columnName);
+			values.append("?");
+		}
+		select.append(" FROM ").append((null != table.schema) ? table.schema + "." + table.name : table.name);
+		insert.append(values).append(")");
+
+		final long start = System.currentTimeMillis();
+		final AtomicLong rows = new AtomicLong();
+		final BlockingQueue<Object[][]> queue = new ArrayBlockingQueue<>(writers * 2);
+		final ExecutorService executor = Executors.newFixedThreadPool(writers);
+
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(writers);
+			for (int i = 0; i < writers; i++)
+				futures.add(executor.submit(() -> { load(insert.toString(), columns, queue, rows); return null; }));
+
+			read(select.toString(), columns.length, queue, futures);
+			for (int i = 0; i < writers; i++)
+				put(queue, END, futures);
+
+			for (final Future<?> future : futures)
+				get(future);
+		}
+		catch (final InterruptedException ex)
+		{
+			Thread.currentThread().interrupt();
+			throw new GeneratorException(ex);
+		}
+		catch (final SQLException ex) { throw new GeneratorException(ex); }
+		finally { executor.shutdownNow(); }
+
+		final long elapsed = Math.max(System.currentTimeMillis() - start, 1L);
+		writeLine("Copied " + rows.get() + " rows from " + table.name + " to " + ((null != schema) ? schema + "." : "") + table.name +
+			" with " + writers + " writers in " + (((float) elapsed) / 1000f) + " seconds (" + ((rows.get() * 1000L) / elapsed) + " rows/second).");
+		getWriter().flush();
+	}
+
+	/** Helper method - streams the rows of the source table to the writers in batches. Uses a forward-only,
+	    read-only cursor with a fetch size so that the driver does not buffer the whole table. PostgreSQL only
+	    honors the fetch size outside of auto-commit mode.
+	*/
+	private void read(final String sql, final int size, final BlockingQueue<Object[][]> queue, final List<Future<?>> futures)
+		throws GeneratorException, InterruptedException, SQLException
+	{
+		try (final Connection connection = dataSource.getConnection())
+		{
+			final boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit)
+				connection.setAutoCommit(false);
+
+			try (final Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+			{
+				stmt.setFetchSize(batchSize);
+
+				try (final ResultSet rs = stmt.executeQuery(sql))
+				{
+					Object[][] batch = new Object[batchSize][];
+					int count = 0;
+					while (rs.next())
+					{
+						final Object[] row = batch[count++] = new Object[size];
+						for (int i = 0; i < size; i++)
+							row[i] = rs.getObject(i + 1);
+
+						if (batchSize == count)
+						{
+							put(queue, batch, futures);
+							batch = new Object[batchSize][];
+							count = 0;
+						}
+					}
+
+					if (0 < count)
+					{
+						final Object[][] o = new Object[count][];
+						System.arraycopy(batch, 0, o, 0, count);
+						put(queue, o, futures);
+					}
+				}
+			}
+			finally
+			{
+				if (autoCommit)
+				{
+					connection.rollback();	// Read only, so nothing to keep.
+					connection.setAutoCommit(true);
+				}
+			}
+		}
+	}
+
+	/** Helper method - inserts batches of rows into the target table until the end marker is received.
+	    Commits every <CODE>commitInterval</CODE> rows and once more at the end.
+	*/
+	private void load(final String sql, final ColumnInfo[] columns, final BlockingQueue<Object[][]> queue, final AtomicLong rows)
+		throws InterruptedException, SQLException
+	{
+		try (final Connection connection = target.getConnection())
+		{
+			final boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit)
+				connection.setAutoCommit(false);
+
+			try (final PreparedStatement stmt = connection.prepareStatement(sql))
+			{
+				int uncommitted = 0;
+				for (Object[][] batch = queue.take(); END != batch; batch = queue.take())
+				{
+					for (final Object[] row : batch)
+					{
+						for (int i = 0; i < columns.length; i++)
+						{
+							if (null == row[i])
+								stmt.setNull(i + 1, columns[i].dataType);
+							else
+								stmt.setObject(i + 1, row[i]);
+						}
+
+						stmt.addBatch();
+					}
+
+					stmt.executeBatch();
+					if (commitInterval <= (uncommitted+= batch.length))
+					{
+						connection.commit();
+						rows.addAndGet(uncommitted);
+						uncommitted = 0;
+					}
+				}
+
+				connection.commit();
+				rows.addAndGet(uncommitted);
+			}
+			catch (final InterruptedException | SQLException ex)
+			{
+				connection.rollback();
+				throw ex;
+			}
+			finally
+			{
+				if (autoCommit)
+					connection.setAutoCommit(true);
+			}
+		}
+	}
+
+	/** Helper method - hands a batch to the writers. Checks the writers while waiting so that the
+	    reader stops once a writer fails instead of blocking on a full queue.
+	*/
+	private void put(final BlockingQueue<Object[][]> queue, final Object[][] batch, final List<Future<?>> futures)
+		throws GeneratorException, InterruptedException
+	{
+		while (!queue.offer(batch, 1L, TimeUnit.SECONDS))
+		{
+			for (final Future<?> future : futures)
+				if (future.isDone()) get(future);
+		}
+	}
+
+	/** Helper method - waits for a writer and rethrows its failure. */
+	private void get(final Future<?> future) throws GeneratorException, InterruptedException
+	{
+		try { future.get(); }
+		catch (final ExecutionException ex)
+		{
+			final Throwable cause = ex.getCause();
+			if (cause instanceof GeneratorException) throw (GeneratorException) cause;
+			if (cause instanceof Exception) throw new GeneratorException((Exception) cause);
+			throw new GeneratorException(ex);
+		}
+	}
+
+	/** Accessor method - gets the name of the output file based on a table name.
+	    Used by BaseTable.generatorTableResources. The output file holds the summary of the copy.
+	*/
+	@Override
+	public String getOutputFileName(final Table table)
+	{
+		return getTableFileName(table, ".log");
+	}
+
+	/** Command line entry point.
+		@param strArg1 URL to the source data source.
+		@param strArg2 source data source login name.
+		@param strArg3 source data source password.
+		@param strArg4 source JDBC driver class name.
+		@param strArg5 database schema name pattern of the source tables.
+		@param strArg6 URL to the target data source.
+		@param strArg7 target data source login name.
+		@param strArg8 target data source password.
+		@param strArg9 target JDBC driver class name.
+		@param strArg10 optional database schema name of the target tables.
+		@param strArg11 optional number of rows per batch. Defaults to 1,000.
+		@param strArg12 optional number of rows per transaction. Defaults to 10,000.
+		@param strArg13 optional number of concurrent writers per table. Defaults to one.
+	*/
+	public static void main(final String... args)
+	{
+		try
+		{
+			// Have enough arguments been supplied?
+			if (7 > args.length)
+				throw new IllegalArgumentException("Please supply at least 7 arguments.");
+
+			final String targetSchema = extractArgument(args, 9, null);
+			final int batchSize = Integer.parseInt(extractArgument(args, 10, BATCH_SIZE_DEFAULT + ""));
+			final int commitInterval = Integer.parseInt(extractArgument(args, 11, COMMIT_INTERVAL_DEFAULT + ""));
+			final int writers = Integer.parseInt(extractArgument(args, 12, WRITERS_DEFAULT + ""));
+
+			final List<Table> tables = extractTables(args, 0, 4);
+			final DataSource dataSource = extractDataSource(args, 0, 1);
+			final DataSource target = extractDataSource(args, 5, writers);
+
+			final PrintWriter writer = new PrintWriter(System.out);
+			final TablesCopy generator = new TablesCopy(writer, dataSource, target, targetSchema, batchSize, commitInterval, writers);
+			for (final Table table : tables)
+			{
+				generator.setTable(table);
+				generator.generate();
+			}
+		}
+
+		catch (final IllegalArgumentException ex)
+		{
+			final String message = ex.getMessage();
+
+			if (null != message)
+			{
+				System.out.println(message);
+				System.out.println();
+			}
+
+			System.out.println("Usage: java " + TablesCopy.class.getName() + " Source JDBC_URL");
+			System.out.println("\tSource User_ID");
+			System.out.println("\tSource Password");
+			System.out.println("\tSource JDBC Driver");
+			System.out.println("\tSource Schema Name Pattern");
+			System.out.println("\tTarget JDBC_URL");
+			System.out.println("\tTarget User_ID");
+			System.out.println("\t[Target Password]");
+			System.out.println("\t[Target JDBC Driver]");
+			System.out.println("\t[Target Schema Name]");
+			System.out.println("\t[Rows per Batch]");
+			System.out.println("\t[Rows per Transaction]");
+			System.out.println("\t[Writers]");
+		}
+
+		catch (final Exception ex) { ex.printStackTrace(); }
+	}
+}
@@ -2,7 +2,7 @@ package com.small.library.doc;
 
 import java.io.*;
 import java.sql.*;
-import java.util.List;
+import java.util.*;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -21,6 +21,12 @@ import com.small.library.metadata.*;
 
 public class TablesDDL extends BaseTable
 {
+	public static final String MODE_LOAD = "load";	// Splits the DDL into pre-load and post-load scripts.
+	public static final String FILE_PRE_LOAD = "pre-load.sql";
+	public static final String FILE_POST_LOAD_FOREIGN_KEYS = "post-load-fk.sql";
+
+	private final boolean primaryKey;
+
 	public TablesDDL(final PrintWriter writer)
 	{
 		this(writer, null);
@@ -31,10 +37,25 @@ public class TablesDDL extends BaseTable
 		@param table A table record object to base the output on.
 	*/
 	public TablesDDL(final PrintWriter writer, final Table table)
+	{
+		this(writer, table, true);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream.
+		@param table A table record object to base the output on.
+		@param primaryKey Indicates whether the CREATE TABLE statement includes the primary key.
+			Leave out when loading data before the keys and indexes are built.
+	*/
+	public TablesDDL(final PrintWriter writer, final Table table, final boolean primaryKey)
 	{
 		super(writer, null, table);
+		this.primaryKey = primaryKey;
 	}
 
+	/** Accessor method - indicates whether the CREATE TABLE statement includes the primary key. */
+	public boolean isPrimaryKey() { return primaryKey; }
+
 	@Override
 	public void generate() throws GeneratorException, IOException
 	{
@@ -70,10 +91,15 @@ public class TablesDDL extends BaseTable
 			if (!column.isNullable)
 				write(" NOT NULL");
 
-			writeLine(",");
+			if (primaryKey && (0 < primaryKeys.size()))
+				writeLine(",");
+			else if (i < (columns.length - 1))
+				writeLine(",");
+			else
+				writeLine();
 		}
 
-		if (0 < primaryKeys.size())
+		if (primaryKey && (0 < primaryKeys.size()))
 		{
 			write("\t");
 
@@ -136,6 +162,127 @@ public class TablesDDL extends BaseTable
 		}
 	}
 
+	/** Action method - generates the table's primary key alter SQL and the index create SQL. Skips
+	    table statistics and the index that backs the primary key, since adding the primary key
+	    builds it.
+	*/
+	public void generateIndexes()
+		throws GeneratorException, IOException
+	{
+		final Table table = getTable();
+		final List<PrimaryKey> primaryKeys;
+		final List<Index> indexes;
+		try
+		{
+			primaryKeys = table.getPrimaryKeys();
+			indexes = table.getIndexes();
+		}
+		catch (SQLException ex) { throw new GeneratorException(ex); }
+
+		String tableName = table.name;
+		if (null != table.schema)
+			tableName = table.schema + "." + tableName;
+
+		final List<String> keyNames = new ArrayList<>(primaryKeys.size());
+		primaryKeys.forEach(o -> keyNames.add(o.key));
+		final String pkName = primaryKeys.isEmpty() ? null : primaryKeys.get(0).name;
+		if (!primaryKeys.isEmpty())
+		{
+			write("ALTER TABLE ");
+			write(tableName);
+			write(" ADD ");
+			if (null != pkName)
+			{
+				write("CONSTRAINT ");
+				write(pkName);
+				write(" ");
+			}
+			write("PRIMARY KEY (");
+			write(StringUtils.join(keyNames, ", "));
+			writeLine(");");
+		}
+
+		for (final Index index : indexes)
+		{
+			if ((DatabaseMetaData.tableIndexStatistic == index.type) || (null == index.name))
+				continue;
+
+			// Skip the primary key's index.
+			if (index.name.equals(pkName))
+				continue;
+			if (index.unique && (index.keys.size() == keyNames.size()) &&
+			    index.keys.stream().allMatch(k -> keyNames.contains(k.name)))
+				continue;
+
+			write("CREATE ");
+			if (index.unique)
+				write("UNIQUE ");
+			write("INDEX ");
+			write(index.name);
+			write(" ON ");
+			write(tableName);
+			write(" (");
+			for (int i = 0; i < index.keys.size(); i++)
+			{
+				final Key key = index.keys.get(i);
+				if (0 < i)
+					write(", ");
+				write(key.name);
+				if ("D".equals(key.sort))
+					write(" DESC");
+			}
+			write(")");
+			if (null != index.filterCondition)
+			{
+				write(" WHERE ");
+				write(index.filterCondition);
+			}
+			writeLine(";");
+		}
+	}
+
+	/** Helper method - orders the tables so that each table follows the tables that its foreign keys
+	    reference. Tables in a reference cycle keep their original order after the others.
+		@param tables Collection of table record objects.
+	*/
+	public static List<Table> sortByDependencies(final List<Table> tables) throws SQLException
+	{
+		final Map<String, Table> names = new HashMap<>();
+		for (final Table table : tables)
+			names.put(getTableFileName(table, ""), table);
+
+		// Find the referenced tables of each table within the collection.
+		final Map<Table, Set<Table>> dependencies = new LinkedHashMap<>();
+		for (final Table table : tables)
+		{
+			final Set<Table> references = new HashSet<>();
+			for (final ForeignKey key : table.getImportedKeys())
+			{
+				final Table reference = names.get(((null != key.pkSchema) ? key.pkSchema + "." : "") + key.pkTable);
+				if ((null != reference) && (table != reference))
+					references.add(reference);
+			}
+
+			dependencies.put(table, references);
+		}
+
+		final Set<Table> sorted = new LinkedHashSet<>(tables.size());
+		boolean progress = true;
+		while (progress && (sorted.size() < tables.size()))
+		{
+			progress = false;
+			for (final Map.Entry<Table, Set<Table>> entry : dependencies.entrySet())
+			{
+				if (!sorted.contains(entry.getKey()) && sorted.containsAll(entry.getValue()))
+					progress = sorted.add(entry.getKey());
+			}
+		}
+
+		sorted.addAll(tables);	// Cycles.
+
+		return new ArrayList<>(sorted);
+	}
+
 	/** Helper method - outputs a list of Keys. */
 	protected String keys(List<Key> keys) throws IOException
 	{
@@ -147,32 +294,79 @@ public class TablesDDL extends BaseTable
 	*/
 	public String getOutputFileName(Table table)
 	{
-		return null;
+		return getTableFileName(table, ".sql");
 	}
 
-	/** Command line entry point.
-		@param strArg1 Output file name.
-		@param strArg2 URL to the data source.
-		@param strArg3 data source login name.
-		@param strArg4 data source password.
-		@param strArg5 optional JDBC driver class name. Will use JDBC-ODBC
-			bridge if a drive is not supplied.
-		@param strArg6 optional database schema name.
+	/** Generator that outputs only the table's foreign key alter SQL. Used to write the
+	    foreign keys to their own per-table files after all the tables have been created.
 	*/
-	public static void main(final String... args)
+	public static class ForeignKeys extends TablesDDL
 	{
-		try (final PrintWriter writer = new PrintWriter(new FileWriter(extractFile(args, 0, "output"))))
+		public ForeignKeys(final PrintWriter writer)
 		{
-			// Have enough arguments been supplied?
-			if (3 > args.length)
-				throw new IllegalArgumentException("Please supply at least 3 arguments.");
+			super(writer);
+		}
 
-			final List<Table> tables = extractTables(args, 1, 5);
+		@Override
+		public void generate() throws GeneratorException, IOException
+		{
+			generateForeignKeys();
+		}
 
-			// Create the Deployment Descriptor generator.
-			final TablesDDL generator = new TablesDDL(writer);
+		@Override
+		public String getOutputFileName(Table table)
+		{
+			return getTableFileName(table, "-fk.sql");
+		}
 
-			// Generate the table create SQL.
+		/** Helper method - gets the tables that have foreign keys so that files are not created for the others. */
+		public static List<Table> getTables(final List<Table> tables) throws SQLException
+		{
+			final List<Table> o = new ArrayList<>(tables.size());
+			for (final Table table : tables)
+				if (!table.getImportedKeys().isEmpty())
+					o.add(table);
+
+			return o;
+		}
+	}
+
+	/** Generator that outputs only the table's primary key and indexes. Used to write each table's
+	    post-load index script to its own file so that the scripts can be run in parallel.
+	*/
+	public static class Indexes extends TablesDDL
+	{
+		public Indexes(final PrintWriter writer)
+		{
+			super(writer);
+		}
+
+		@Override
+		public void generate() throws GeneratorException, IOException
+		{
+			generateIndexes();
+		}
+
+		@Override
+		public String getOutputFileName(Table table)
+		{
+			return getTableFileName(table, "-indexes.sql");
+		}
+	}
+
+	/** Helper method - writes the load-optimized scripts to the output directory. The pre-load script
+	    creates the tables without keys, each table's post-load index script adds its primary key and
+	    indexes, and the post-load foreign key script adds the foreign keys with referenced tables first.
+		@param tables Collection of table record objects.
+		@param directory Directory to output the scripts.
+		@param threads Maximum number of index scripts generated at once.
+	*/
+	public static void generateLoadScripts(final List<Table> tables, final File directory, final int threads)
+		throws GeneratorException, IOException, SQLException
+	{
+		try (final PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(new File(directory, FILE_PRE_LOAD)))))
+		{
+			final TablesDDL generator = new TablesDDL(writer, null, false);
 			boolean first = true;
 			for (final Table o : tables)
 			{
@@ -183,25 +377,108 @@ public class TablesDDL extends BaseTable
 
 				generator.setTable(o);
 				generator.generate();
-
-				writer.flush();
 			}
+		}
 
-			writer.println();
+		generateTableResources(() -> new Indexes(null), tables, directory, threads);
 
-			// Generate the table foreign key alter SQL.
-			first = true;
-			for (final Table o : tables)
+		try (final PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(new File(directory, FILE_POST_LOAD_FOREIGN_KEYS)))))
+		{
+			final TablesDDL generator = new TablesDDL(writer);
+			for (final Table o : sortByDependencies(tables))
 			{
-				if (first)
-					first = false;
-				else
-					writer.println();
-
 				generator.setTable(o);
 				generator.generateForeignKeys();
+			}
+		}
+	}
 
-				writer.flush();
+	/** Command line entry point.
+		@param strArg1 Output file name. If an existing directory is supplied, each table's
+			DDL is written to its own file in the directory in parallel. The foreign keys
+			are written to separate "-fk.sql" files for the tables that have them.
+		@param strArg2 URL to the data source.
+		@param strArg3 data source login name.
+		@param strArg4 data source password.
+		@param strArg5 optional JDBC driver class name. Will use JDBC-ODBC
+			bridge if a drive is not supplied.
+		@param strArg6 optional database schema name.
+		@param strArg7 optional number of tables generated at once when outputting to a directory.
+			Defaults to one.
+		@param strArg8 optional mode. "load" writes load-optimized scripts to the output directory:
+			"pre-load.sql" creates the tables without keys, a "-indexes.sql" file per table adds
+			its primary key and indexes, and "post-load-fk.sql" adds the foreign keys in
+			dependency order.
+	*/
+	public static void main(final String... args)
+	{
+		try
+		{
+			// Have enough arguments been supplied?
+			if (3 > args.length)
+				throw new IllegalArgumentException("Please supply at least 3 arguments.");
+
+			final int threads = Integer.parseInt(extractArgument(args, 6, "1"));
+			final String mode = extractArgument(args, 7, null);
+			final List<Table> tables = extractTables(args, 1, 5);
+
+			// Write the load-optimized scripts.
+			final File output = new File(args[0]);
+			if (MODE_LOAD.equalsIgnoreCase(mode))
+			{
+				if (!output.isDirectory())
+					throw new IllegalArgumentException("The load mode requires an existing output directory.");
+
+				generateLoadScripts(tables, output, threads);
+				return;
+			}
+			else if (null != mode)
+				throw new IllegalArgumentException("The mode '" + mode + "' is not supported.");
+
+			// Write each table's DDL to its own file in parallel.
+			if (output.isDirectory())
+			{
+				generateTableResources(() -> new TablesDDL(null), tables, output, threads);
+				generateTableResources(() -> new ForeignKeys(null), ForeignKeys.getTables(tables), output, threads);
+				return;
+			}
+
+			try (final PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(extractFile(args, 0, "output")))))
+			{
+				// Create the Deployment Descriptor generator.
+				final TablesDDL generator = new TablesDDL(writer);
+
+				// Generate the table create SQL.
+				boolean first = true;
+				for (final Table o : tables)
+				{
+					if (first)
+						first = false;
+					else
+						writer.println();
+
+					generator.setTable(o);
+					generator.generate();
+
+					writer.flush();
+				}
+
+				writer.println();
+
+				// Generate the table foreign key alter SQL.
+				first = true;
+				for (final Table o : tables)
+				{
+					if (first)
+						first = false;
+					else
+						writer.println();
+
+					generator.setTable(o);
+					generator.generateForeignKeys();
+
+					writer.flush();
+				}
 			}
 		}
 
@@ -221,6 +498,8 @@ public class TablesDDL extends BaseTable
 			System.out.println("\t[Passowrd]");
 			System.out.println("\t[JDBC Driver]");
 			System.out.println("\t[Schema Name Pattern]");
+			System.out.println("\t[Threads]");
+			System.out.println("\t[Mode (load)]");
 		}
 
 		catch (final Exception ex) { ex.printStackTrace(); }
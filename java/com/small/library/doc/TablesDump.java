@@ -1,10 +1,16 @@
 package com.small.library.doc;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.io.*;
+import java.math.BigDecimal;
 import java.sql.*;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
 
 import javax.sql.DataSource;
 
@@ -25,20 +31,60 @@ import com.small.library.metadata.*;
 
 public class TablesDump extends BaseTable
 {
+	/** DB2 timestamp format through the seconds. The milliseconds follow without padding. Thread-safe. */
+	public static final DateTimeFormatter DB2_TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd-HH.mm.ss.");
+
+	/** DB2 date format. Thread-safe. */
+	public static final DateTimeFormatter DB2_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+
+	/** @deprecated Not thread-safe. Use DB2_TIMESTAMP_FORMAT. */
+	@Deprecated
 	public static final DateFormat db2TimestampFormat = new SimpleDateFormat(
 		"yyyy-MM-dd-HH.mm.ss.S");
 
+	/** @deprecated Not thread-safe. Use DB2_DATE_FORMAT. */
+	@Deprecated
 	public static final DateFormat db2DateFormat = new SimpleDateFormat(
 		"yyyy-MM-dd");
 
+	public static final int FETCH_SIZE_DEFAULT = 1000;	// Number of rows the driver buffers per round trip.
+	public static final int BATCH_SIZE_DEFAULT = 1;	// Number of rows per INSERT statement.
+	public static final int BUFFER_SIZE = 1 << 16;	// Size of the output buffer in characters.
+	public static final int PARTITIONS_DEFAULT = 1;	// Number of primary key ranges read concurrently per table.
+	public static final int CHUNK_SIZE_DEFAULT = 100000;	// Number of rows read per keyset query in resumable mode.
+
 	private final DataSource dataSource;
 	private final String insertSchema;
+	private final int fetchSize;
+	private final int batchSize;
+	private final int partitions;
+	private final DumpCheckpoint checkpoint;
+	private final int chunkSize;
+	private File output;
 
 	public TablesDump(final PrintWriter writer, final DataSource dataSource, final String insertSchema)
 	{
 		this(writer, null, dataSource, insertSchema);
 	}
 
+	public TablesDump(final PrintWriter writer, final DataSource dataSource, final String insertSchema,
+		final int fetchSize, final int batchSize)
+	{
+		this(writer, null, dataSource, insertSchema, fetchSize, batchSize);
+	}
+
+	public TablesDump(final PrintWriter writer, final DataSource dataSource, final String insertSchema,
+		final int fetchSize, final int batchSize, final int partitions)
+	{
+		this(writer, null, dataSource, insertSchema, fetchSize, batchSize, partitions);
+	}
+
+	public TablesDump(final PrintWriter writer, final DataSource dataSource, final String insertSchema,
+		final int fetchSize, final int batchSize, final int partitions, final DumpCheckpoint checkpoint, final int chunkSize)
+	{
+		this(writer, null, dataSource, insertSchema, fetchSize, batchSize, partitions, checkpoint, chunkSize);
+	}
+
 	/** Constructor - constructs a populated object.
 		@param writer The output stream.
 		@param table A table record object to base the output on.
@@ -50,10 +96,101 @@ public class TablesDump extends BaseTable
 	*/
 	public TablesDump(final PrintWriter writer, final Table table, final DataSource dataSource,
 		final String insertSchema)
+	{
+		this(writer, table, dataSource, insertSchema, FETCH_SIZE_DEFAULT, BATCH_SIZE_DEFAULT);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream.
+		@param table A table record object to base the output on.
+		@param dataSource Data Source.
+		@param insertSchema Optional schema name used on the insert scripts.
+		@param fetchSize Number of rows fetched from the cursor per round trip.
+			Keeps memory flat on drivers that otherwise read the entire result.
+			MySQL also requires "useCursorFetch=true" on the JDBC URL.
+		@param batchSize Number of rows written per multi-row INSERT statement.
+			A value of one writes a single row per statement.
+	*/
+	public TablesDump(final PrintWriter writer, final Table table, final DataSource dataSource,
+		final String insertSchema, final int fetchSize, final int batchSize)
+	{
+		this(writer, table, dataSource, insertSchema, fetchSize, batchSize, PARTITIONS_DEFAULT);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream.
+		@param table A table record object to base the output on.
+		@param dataSource Data Source. Should be pooled with at least <CODE>partitions</CODE> connections.
+		@param insertSchema Optional schema name used on the insert scripts.
+		@param fetchSize Number of rows fetched from the cursor per round trip.
+		@param batchSize Number of rows written per multi-row INSERT statement.
+		@param partitions Number of primary key ranges read concurrently, each on its own connection.
+			Only applies to tables with a single integral primary key column. The ranges are
+			written in key order to the output stream. Each range is read in its own transaction,
+			so the dump is not a consistent snapshot of a table that is written to meanwhile.
+			Use one partition, or dump a quiesced table or a read replica, when that matters.
+	*/
+	public TablesDump(final PrintWriter writer, final Table table, final DataSource dataSource,
+		final String insertSchema, final int fetchSize, final int batchSize, final int partitions)
+	{
+		this(writer, table, dataSource, insertSchema, fetchSize, batchSize, partitions, null, CHUNK_SIZE_DEFAULT);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream.
+		@param table A table record object to base the output on.
+		@param dataSource Data Source.
+		@param insertSchema Optional schema name used on the insert scripts.
+		@param fetchSize Number of rows fetched from the cursor per round trip.
+		@param batchSize Number of rows written per multi-row INSERT statement.
+		@param partitions Number of primary key ranges read concurrently. Ignored when resumable.
+		@param checkpoint Optional checkpoint that makes the dump resumable. Tables with a primary key
+			are read in chunks ordered by the key, and the last key of each chunk is recorded so that
+			a restarted dump continues after it. Requires the output stream to be opened by
+			<I>createWriter</I>.
+		@param chunkSize Number of rows read per chunk when resumable.
+	*/
+	public TablesDump(final PrintWriter writer, final Table table, final DataSource dataSource,
+		final String insertSchema, final int fetchSize, final int batchSize, final int partitions,
+		final DumpCheckpoint checkpoint, final int chunkSize)
 	{
 		super(writer, null, table);
 		this.dataSource = dataSource;
 		this.insertSchema = insertSchema;
+		this.fetchSize = Math.max(fetchSize, 0);
+		this.batchSize = Math.max(batchSize, 1);
+		this.partitions = Math.max(partitions, 1);
+		this.checkpoint = checkpoint;
+		this.chunkSize = Math.max(chunkSize, 1);
+	}
+
+	/** Accessor method - gets the number of rows fetched from the cursor per round trip. */
+	public int getFetchSize() { return fetchSize; }
+
+	/** Accessor method - gets the number of rows written per INSERT statement. */
+	public int getBatchSize() { return batchSize; }
+
+	/** Accessor method - gets the number of primary key ranges read concurrently. */
+	public int getPartitions() { return partitions; }
+
+	/** Accessor method - gets the checkpoint of a resumable dump. NULL if not resumable. */
+	public DumpCheckpoint getCheckpoint() { return checkpoint; }
+
+	/** Accessor method - gets the number of rows read per chunk when resumable. */
+	public int getChunkSize() { return chunkSize; }
+
+	/** Helper method - opens the output stream. When resumable, truncates the output file to its last
+	    checkpoint and appends from there, which requires plain output.
+	*/
+	@Override
+	public PrintWriter createWriter(final File output, final OutputSink sink) throws IOException
+	{
+		this.output = output;
+		if (null == checkpoint) return super.createWriter(output, sink);
+		if (!sink.isPlain())
+			throw new IOException("A resumable dump cannot be compressed or split into parts.");
+
+		return checkpoint.open(output, BUFFER_SIZE);
 	}
 
 	@Override
@@ -86,10 +223,8 @@ public class TablesDump extends BaseTable
 		catch (SQLException ex) { throw new GeneratorException(ex); }
 
 		// Get beginning of INSERT statement and the SELECT statement.
-		String insert = "INSERT INTO ";
-		insert+= insertTableName;
-		insert+= " (";
-		String select = "SELECT ";
+		final StringBuilder insert = new StringBuilder("INSERT INTO ").append(insertTableName).append(" (");
+		final StringBuilder select = new StringBuilder("SELECT ");
 
 		for (int i = 0; i < columns.length; i++)
 		{
@@ -97,66 +232,562 @@ public class TablesDump extends BaseTable
 
 			if (0 < i)
 			{
-				insert+= ", ";
-				select+= ", ";
+				insert.append(", ");
+				select.append(", ");
 			}
 
-			insert+= column.columnName;
-			select+= column.columnName;
+			insert.append(column.columnName);
+			select.append(column.columnName);
 		}
 
-		insert+= ") VALUES (";
-		select+= " FROM " + selectTableName;
+		insert.append(") VALUES (");
+		select.append(" FROM ").append(selectTableName);
 
-		// Call the SELECT statement and write-out each INSERT statement.
-		try (final Connection connection = dataSource.getConnection();
-		     final ResultSet rs = connection.createStatement().executeQuery(select))
+		final Encoder[] encoders = getEncoders(columns);
+
+		try
 		{
-			while (rs.next())
+			if (null != checkpoint)
 			{
-				write(insert);
+				resume(columns, encoders, insert.toString(), select.toString());
+				return;
+			}
 
-				for (int i = 0; i < columns.length; i++)
+			// Split the table into primary key ranges that are read concurrently.
+			if (1 < partitions)
+			{
+				final ColumnInfo column = getPartitionColumn(columns);
+				final long[] bounds = (null != column) ? getPartitionBounds(column.columnName, selectTableName) : null;
+				if ((null != bounds) && (2 < bounds.length))
 				{
-					ColumnInfo column = columns[i];
+					generate(encoders, insert.toString(), select.toString(), column.columnName, bounds);
+					return;
+				}
+			}
+
+			dump(select.toString(), encoders, insert.toString());
+		}
+		catch (SQLException ex) { throw new GeneratorException(ex); }
+	}
+
+	/** Helper method - dumps the table in chunks ordered by the primary key and records a checkpoint after
+	    each chunk. Each chunk continues after the last key of the previous chunk, so the position in the
+	    table does not depend on a long running cursor and survives a restart. Tables without a primary
+	    key, or with a key column that is not integral, decimal, or character, are dumped with a single
+	    cursor and only checkpointed once complete, since the checkpoint holds the keys as text.
+	*/
+	private void resume(final ColumnInfo[] columns, final Encoder[] encoders, final String insert, final String select)
+		throws GeneratorException, SQLException, IOException
+	{
+		final Table table = getTable();
+		if (null == output)
+			throw new GeneratorException("The output stream of a resumable dump must be opened with createWriter.");
+		if (checkpoint.isComplete(table))
+		{
+			System.out.println("Skipped table - " + table.name + " (" + checkpoint.getRows(table) + " rows) is already complete.");
+			return;
+		}
+
+		int[] keys = getKeyIndexes(columns);
+		for (final int i : keys)
+		{
+			if (isResumable(columns[i])) continue;
+
+			System.out.println("Dumping table - " + table.name + " in a single chunk. Its key column " + columns[i].columnName + " (" + columns[i].dataTypeName + ") cannot be resumed from.");
+			keys = new int[0];
+			break;
+		}
+
+		final PrintWriter writer = getWriter();
+		if (0 == keys.length)
+		{
+			final long rows = dump(select, encoders, insert);
+			writer.flush();
+			checkpoint.complete(table, rows, output);
+			return;
+		}
+
+		// Build the ORDER BY clause and the keyset predicate. Composite keys use a chain of OR conditions,
+		// i.e. (k1 > ?) OR (k1 = ? AND k2 > ?), rather than row value comparisons that not all databases support.
+		final StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+		final StringBuilder where = new StringBuilder(" WHERE ");
+		for (int i = 0; i < keys.length; i++)
+		{
+			if (0 < i)
+			{
+				orderBy.append(", ");
+				where.append(" OR ");
+			}
 
-					if (0 < i)
-						write(", ");
+			orderBy.append(columns[keys[i]].columnName);
+			where.append("(");
+			for (int j = 0; j < i; j++)
+				where.append(columns[keys[j]].columnName).append(" = ? AND ");
+			where.append(columns[keys[i]].columnName).append(" > ?)");
+		}
 
-					Object value = rs.getObject(i + 1);
+		String[] last = checkpoint.getKey(table);
+		if ((null != last) && (last.length != keys.length))
+			throw new GeneratorException("The checkpoint key of table '" + table.name + "' does not match its primary key. Delete '" + checkpoint.getFile() + "' to start over.");
 
-					if (null == value)
-						write("NULL");
-					else if (value instanceof java.sql.Timestamp)
+		final long start = System.currentTimeMillis();
+		final long resumed = checkpoint.getRows(table);
+		long rows = resumed;
+		if (null != last)
+			System.out.println("Resuming table - " + table.name + " after " + rows + " rows.");
+
+		try (final Connection connection = dataSource.getConnection())
+		{
+			final boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit)
+				connection.setAutoCommit(false);
+
+			try
+			{
+				int count;
+				do
+				{
+					final long time = System.currentTimeMillis();
+					final String[] key = new String[keys.length];
+					try (final PreparedStatement stmt = connection.prepareStatement(select + ((null != last) ? where : "") + orderBy,
+						ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
 					{
-						write("'");
-						write(db2TimestampFormat.format(
-							(java.util.Date) value));
-						write("'");
+						stmt.setFetchSize(Math.min(fetchSize, chunkSize));
+						stmt.setMaxRows(chunkSize);
+						if (null != last)
+						{
+							int p = 1;
+							for (int i = 0; i < keys.length; i++)
+								for (int j = 0; j <= i; j++)
+									stmt.setObject(p++, toKey(last[j], columns[keys[j]]), columns[keys[j]].dataType);
+						}
+
+						try (final ResultSet rs = stmt.executeQuery())
+						{
+							count = write(rs, encoders, insert, keys, key);
+						}
 					}
-					else if (value instanceof java.sql.Date)
+					finally
 					{
-						write("'");
-						write(db2DateFormat.format((java.util.Date) value));
-						write("'");
+						if (autoCommit)
+							connection.rollback();	// Release the snapshot between chunks.
 					}
 
-					else
+					if (0 < count)
 					{
-						if (column.isCharacter)
-							write("'");
+						rows+= count;
+						last = key;
+						writer.flush();
+						checkpoint.update(table, last, rows, output);
+
+						final long now = System.currentTimeMillis();
+						System.out.println("Dumped chunk - " + table.name + " " + count + " rows (" + rows + " total) at " +
+							((count * 1000L) / Math.max(now - time, 1L)) + " rows/second, " +
+							(((rows - resumed) * 1000L) / Math.max(now - start, 1L)) + " rows/second overall.");
+					}
+				}
+				while (chunkSize == count);
+			}
+			finally
+			{
+				if (autoCommit)
+					connection.setAutoCommit(true);
+			}
+		}
+
+		writer.flush();
+		checkpoint.complete(table, rows, output);
+	}
+
+	/** Helper method - indicates whether the text of a key column's values can be bound back to the keyset query. */
+	private static boolean isResumable(final ColumnInfo column)
+	{
+		switch (column.dataType)
+		{
+			case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT, Types.DECIMAL, Types.NUMERIC,
+			     Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR:
+				return true;
+
+			default: return false;
+		}
+	}
+
+	/** Helper method - converts the checkpoint text of a key value to the Java type of its column. */
+	private static Object toKey(final String value, final ColumnInfo column)
+	{
+		switch (column.dataType)
+		{
+			case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT:
+				if ((null != column.dataTypeName) && (0 <= column.dataTypeName.toLowerCase().indexOf("unsigned")))
+					return new BigDecimal(value);	// Unsigned BIGINT values can exceed a long.
+
+				return Long.valueOf(value);
+
+			case Types.DECIMAL, Types.NUMERIC: return new BigDecimal(value);
+
+			default: return value;
+		}
+	}
+
+	/** Helper method - gets the positions of the primary key columns in the SELECT statement.
+		@return empty if the table does not have a primary key.
+	*/
+	private int[] getKeyIndexes(final ColumnInfo[] columns) throws SQLException
+	{
+		final List<PrimaryKey> keys = getPrimaryKeys();
+		final int[] o = new int[keys.size()];
+		for (int i = 0; i < o.length; i++)
+		{
+			final String name = keys.get(i).key;
+			o[i] = -1;
+			for (int j = 0; j < columns.length; j++)
+				if (columns[j].columnName.equals(name)) { o[i] = j; break; }
+
+			if (0 > o[i]) return new int[0];	// Key column is not selected.
+		}
+
+		return o;
+	}
+
+	/** Helper method - dumps each primary key range on its own connection. The first range is written
+	    directly to the output stream while the others are written to temporary files that are appended
+	    in key order once all the ranges are complete. The temporary files are created in the output
+	    directory. The ranges are read at different points in time, so rows written meanwhile may be
+	    missed or reflect different moments.
+		@param bounds lower bound of each range followed by the upper bound of the last range.
+	*/
+	private void generate(final Encoder[] encoders, final String insert, final String select,
+		final String column, final long[] bounds) throws GeneratorException, IOException
+	{
+		final int size = bounds.length - 1;
+		final File[] files = new File[size];
+		final File directory = (null != output) ? output.getAbsoluteFile().getParentFile() : null;	// NULL is the system temporary directory.
+		final ExecutorService executor = Executors.newFixedThreadPool(size);
 
-						write(StringUtils.replace(value.toString(), "'", "''"));
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(size);
+			for (int i = 0; i < size; i++)
+			{
+				final String sql = select + " WHERE " + column + " >= ?" + ((i < (size - 1)) ? " AND " + column + " < ?" : "");
+				final long[] params = (i < (size - 1)) ? new long[] { bounds[i], bounds[i + 1] } : new long[] { bounds[i] };
+				if (0 == i)
+				{
+					futures.add(executor.submit(() -> { dump(sql, encoders, insert, params); return null; }));
+					continue;
+				}
 
-						if (column.isCharacter)
-							write("'");
+				// The prefix must be at least three characters.
+				final File file = files[i] = File.createTempFile(StringUtils.rightPad(getTableFileName(getTable(), "-"), 3, '_'), ".part", directory);
+				futures.add(executor.submit(() -> {
+					try (final PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8), BUFFER_SIZE)))
+					{
+						new TablesDump(writer, getTable(), dataSource, insertSchema, fetchSize, batchSize).dump(sql, encoders, insert, params);
 					}
+
+					return null;
+				}));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				try { future.get(); }
+				catch (final InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+					throw new GeneratorException(ex);
+				}
+				catch (final ExecutionException ex)
+				{
+					final Throwable cause = ex.getCause();
+					if (cause instanceof IOException) throw (IOException) cause;
+					if (cause instanceof Exception) throw new GeneratorException((Exception) cause);
+					throw new GeneratorException(ex);
+				}
+			}
+
+			// Append the remaining ranges in key order.
+			final PrintWriter writer = getWriter();
+			for (int i = 1; i < size; i++)
+			{
+				try (final Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(files[i]), UTF_8), BUFFER_SIZE))
+				{
+					reader.transferTo(writer);
+				}
+			}
+		}
+		finally
+		{
+			executor.shutdownNow();
+			for (final File file : files)
+				if (null != file) file.delete();
+		}
+	}
+
+	/** Helper method - gets the single integral primary key column that the table can be split by.
+		@return NULL if the primary key is composite, missing, or not integral.
+	*/
+	private ColumnInfo getPartitionColumn(final ColumnInfo[] columns)
+	{
+		ColumnInfo o = null;
+		for (final ColumnInfo column : columns)
+		{
+			if (!column.isPartOfPrimaryKey) continue;
+			if (null != o) return null;	// Composite key.
+
+			o = column;
+		}
+
+		if (null == o) return null;
+
+		switch (o.dataType)
+		{
+			case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT: return o;
+			case Types.DECIMAL, Types.NUMERIC: return (0 == o.decimalDigits) ? o : null;
+			default: return null;
+		}
+	}
+
+	/** Helper method - splits the range of primary key values into equally sized ranges.
+		@return the lower bound of each range followed by one past the maximum value. NULL if the table is empty.
+	*/
+	private long[] getPartitionBounds(final String column, final String table) throws SQLException
+	{
+		try (final Connection connection = dataSource.getConnection();
+		     final Statement stmt = connection.createStatement();
+		     final ResultSet rs = stmt.executeQuery("SELECT MIN(" + column + "), MAX(" + column + ") FROM " + table))
+		{
+			if (!rs.next()) return null;
+
+			final long min = rs.getLong(1);
+			if (rs.wasNull()) return null;	// Empty table.
+			final long max = rs.getLong(2);
+
+			final long size = Math.min(partitions, (max - min) + 1L);
+			final long step = ((max - min) / size) + 1L;
+			final long[] o = new long[(int) size + 1];
+			for (int i = 0; i < size; i++)
+				o[i] = min + (i * step);
+			o[(int) size] = max + 1L;
+
+			return o;
+		}
+	}
+
+	/** Helper method - runs the SELECT statement and writes out each INSERT statement. Uses a forward-only,
+	    read-only cursor with a fetch size so that the driver streams the rows instead of buffering the
+	    whole table. PostgreSQL only honors the fetch size outside of auto-commit mode.
+		@param sql SELECT statement.
+		@param encoders encoders of the SELECT statement's columns in order.
+		@param insert beginning of the INSERT statement through the opening VALUES parenthesis.
+		@param params values of the SELECT statement's parameters.
+		@return number of rows written.
+	*/
+	private long dump(final String sql, final Encoder[] encoders, final String insert, final long... params)
+		throws SQLException, IOException
+	{
+		try (final Connection connection = dataSource.getConnection())
+		{
+			final boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit)
+				connection.setAutoCommit(false);
+
+			try (final PreparedStatement stmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY))
+			{
+				stmt.setFetchSize(fetchSize);
+				for (int i = 0; i < params.length; i++)
+					stmt.setLong(i + 1, params[i]);
+
+				try (final ResultSet rs = stmt.executeQuery())
+				{
+					return write(rs, encoders, insert, new int[0], null);
 				}
+			}
+			finally
+			{
+				if (autoCommit)
+				{
+					connection.rollback();	// Read only, so nothing to keep.
+					connection.setAutoCommit(true);
+				}
+			}
+		}
+	}
+
+	/** Helper method - writes the rows of the cursor as INSERT statements. Groups up to <CODE>batchSize</CODE>
+	    rows into a single multi-row INSERT statement.
+		@param rs cursor positioned before the first row.
+		@param encoders encoders of the cursor's columns in SELECT order.
+		@param insert beginning of the INSERT statement through the opening VALUES parenthesis.
+		@param keys positions of the primary key columns to capture.
+		@param last receives the primary key values of the last row written.
+		@return number of rows written.
+	*/
+	private int write(final ResultSet rs, final Encoder[] encoders, final String insert, final int[] keys,
+		final String[] last) throws SQLException, IOException
+	{
+		final PrintWriter writer = getWriter();
+		int count = 0;
+		int rows = 0;
+		while (rs.next())
+		{
+			count++;
+			for (int i = 0; i < keys.length; i++)
+				last[i] = rs.getString(keys[i] + 1);
+
+			if (0 == rows)
+				write(insert);
+			else
+			{
+				writeLine("),");
+				write("\t(");
+			}
+
+			for (int i = 0; i < encoders.length; i++)
+			{
+				if (0 < i)
+					writer.write(", ");
+
+				encoders[i].write(rs, i + 1, writer);
+			}
 
+			if (batchSize == ++rows)
+			{
 				writeLine(");");
+				rows = 0;
 			}
 		}
-		catch (SQLException ex) { throw new GeneratorException(ex); }
+
+		if (0 < rows)
+			writeLine(");");
+
+		return count;
+	}
+
+	/** Helper method - chooses the encoder of each column once per table from its JDBC type so that the
+	    row loop uses the typed getters instead of inspecting each value.
+	*/
+	private static Encoder[] getEncoders(final ColumnInfo[] columns)
+	{
+		final Encoder[] o = new Encoder[columns.length];
+		for (int i = 0; i < columns.length; i++)
+			o[i] = getEncoder(columns[i]);
+
+		return o;
+	}
+
+	/** Helper method - chooses the encoder of a single column. */
+	private static Encoder getEncoder(final ColumnInfo column)
+	{
+		// Unsigned BIGINT values can exceed a long.
+		final boolean unsigned = (null != column.dataTypeName) && (0 <= column.dataTypeName.toLowerCase().indexOf("unsigned"));
+
+		switch (unsigned ? Types.OTHER : column.dataType)
+		{
+			case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT:
+				return (rs, i, writer) -> {
+					final long value = rs.getLong(i);
+					if (rs.wasNull()) writer.write("NULL");
+					else writer.print(value);
+				};
+
+			case Types.DECIMAL, Types.NUMERIC:
+				return (rs, i, writer) -> {
+					final BigDecimal value = rs.getBigDecimal(i);
+					writer.write((null == value) ? "NULL" : value.toString());
+				};
+
+			case Types.DOUBLE, Types.FLOAT:
+				return (rs, i, writer) -> {
+					final double value = rs.getDouble(i);
+					if (rs.wasNull()) writer.write("NULL");
+					else writer.print(value);
+				};
+
+			case Types.REAL:
+				return (rs, i, writer) -> {
+					final float value = rs.getFloat(i);
+					if (rs.wasNull()) writer.write("NULL");
+					else writer.print(value);
+				};
+
+			case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.CLOB, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR, Types.NCLOB:
+				return (rs, i, writer) -> {
+					final String value = rs.getString(i);
+					if (null == value) writer.write("NULL");
+					else quote(value, writer);
+				};
+
+			case Types.TIMESTAMP:
+				return (rs, i, writer) -> {
+					final Timestamp value = rs.getTimestamp(i);
+					if (null == value) writer.write("NULL");
+					else
+					{
+						writer.write('\'');
+						DB2_TIMESTAMP_FORMAT.formatTo(value.toLocalDateTime(), writer);
+						writer.print(value.getNanos() / 1000000);
+						writer.write('\'');
+					}
+				};
+
+			case Types.DATE:
+				return (rs, i, writer) -> {
+					final Date value = rs.getDate(i);
+					if (null == value) writer.write("NULL");
+					else
+					{
+						writer.write('\'');
+						DB2_DATE_FORMAT.formatTo(value.toLocalDate(), writer);
+						writer.write('\'');
+					}
+				};
+
+			default:
+				final boolean character = column.isCharacter;
+				return (rs, i, writer) -> {
+					final Object value = rs.getObject(i);
+					if (null == value) writer.write("NULL");
+					else if (character) quote(value.toString(), writer);
+					else escape(value.toString(), writer);
+				};
+		}
+	}
+
+	/** Helper method - writes a value as a quoted SQL string literal. */
+	private static void quote(final String value, final PrintWriter writer)
+	{
+		writer.write('\'');
+		escape(value, writer);
+		writer.write('\'');
+	}
+
+	/** Helper method - writes a value with its single quotes doubled. Copies the runs between quotes
+	    directly to the output stream rather than building an escaped copy of the value.
+	*/
+	private static void escape(final String value, final PrintWriter writer)
+	{
+		int start = 0;
+		for (int i = value.indexOf('\''); 0 <= i; i = value.indexOf('\'', start))
+		{
+			writer.write(value, start, (i + 1) - start);
+			writer.write('\'');
+			start = i + 1;
+		}
+
+		writer.write(value, start, value.length() - start);
+	}
+
+	/** Writes the value of a column from the current row of a cursor. */
+	@FunctionalInterface
+	private interface Encoder
+	{
+		/** Writes the value.
+			@param rs cursor positioned on a row.
+			@param index position of the column in the cursor.
+			@param writer output stream.
+		*/
+		void write(ResultSet rs, int index, PrintWriter writer) throws SQLException;
 	}
 
 	/** Accessor method - gets the name of the output file based on a table name.
@@ -164,11 +795,12 @@ public class TablesDump extends BaseTable
 	*/
 	public String getOutputFileName(Table table)
 	{
-		return null;
+		return getTableFileName(table, ".sql");
 	}
 
 	/** Command line entry point.
-		@param strArg1 Output file name.
+		@param strArg1 Output file name. If an existing directory is supplied, each table
+			is dumped to its own file in the directory in parallel.
 		@param strArg2 URL to the data source.
 		@param strArg3 data source login name.
 		@param strArg4 data source password.
@@ -176,39 +808,67 @@ public class TablesDump extends BaseTable
 			bridge if a drive is not supplied.
 		@param strArg6 optional database schema name of the tables to query.
 		@param strArg7 optional database schema name of the tables to insert.
+		@param strArg8 optional number of rows per INSERT statement. Defaults to one.
+		@param strArg9 optional number of rows fetched per round trip. Defaults to 1,000.
+		@param strArg10 optional number of tables dumped at once when outputting to a directory.
+			Defaults to one.
+		@param strArg11 optional number of primary key ranges of each table read concurrently.
+			Defaults to one. The connection pool holds threads times partitions connections.
+		@param strArg12 optional checkpoint file. Makes the dump resumable: each table is read in
+			chunks ordered by its primary key, and a restart with the same checkpoint file continues
+			after the last chunk written.
+		@param strArg13 optional number of rows per chunk when resumable. Defaults to 100,000.
 	*/
 	public static void main(final String... args)
 	{
-		try (final PrintWriter writer = new PrintWriter(new FileWriter(extractFile(args, 0, "output"))))
+		try
 		{
 			// Have enough arguments been supplied?
 			if (3 > args.length)
 				throw new IllegalArgumentException("Please supply at least 3 arguments.");
 
 			// Get the optional insert schema name.
-			String insertSchema = null;
-			if (6 < args.length)
-				insertSchema = args[6];
+			final String insertSchema = extractArgument(args, 6, null);
+			final int batchSize = Integer.parseInt(extractArgument(args, 7, BATCH_SIZE_DEFAULT + ""));
+			final int fetchSize = Integer.parseInt(extractArgument(args, 8, FETCH_SIZE_DEFAULT + ""));
+			final int threads = Integer.parseInt(extractArgument(args, 9, "1"));
+			final int partitions = Integer.parseInt(extractArgument(args, 10, PARTITIONS_DEFAULT + ""));
+			final String checkpointFile = extractArgument(args, 11, null);
+			final DumpCheckpoint checkpoint = (null != checkpointFile) ? DumpCheckpoint.load(new File(checkpointFile)) : null;
+			final int chunkSize = Integer.parseInt(extractArgument(args, 12, CHUNK_SIZE_DEFAULT + ""));
 
 			// Create and load the tables object.
 			final List<Table> tables = extractTables(args, 1, 5);
 
-			// Create the Deployment Descriptor generator.
-			final TablesDump generator = new TablesDump(writer, extractDataSource(args, 1), insertSchema);
+			// Dump each table to its own file in parallel.
+			final File output = new File(args[0]);
+			if (output.isDirectory())
+			{
+				final DataSource dataSource = extractDataSource(args, 1, threads * partitions);
+				generateTableResources(() -> new TablesDump(null, dataSource, insertSchema, fetchSize, batchSize, partitions, checkpoint, chunkSize), tables, output, threads);
+				return;
+			}
 
-			// Buld the body of the deployment descriptor.
-			boolean first = true;
-			for (final Table o : tables)
+			// Create the Deployment Descriptor generator.
+			final TablesDump generator = new TablesDump(null, extractDataSource(args, 1, partitions), insertSchema, fetchSize, batchSize, partitions, checkpoint, chunkSize);
+			try (final PrintWriter writer = generator.createWriter(extractFile(args, 0, "output")))
 			{
-				if (first)
-					first = false;
-				else
-					writer.println();
+				generator.setWriter(writer);
 
-				generator.setTable(o);
-				generator.generate();
+				// Buld the body of the deployment descriptor.
+				boolean first = true;
+				for (final Table o : tables)
+				{
+					if (first)
+						first = false;
+					else
+						writer.println();
+
+					generator.setTable(o);
+					generator.generate();
 
-				writer.flush();
+					writer.flush();
+				}
 			}
 		}
 
@@ -228,6 +888,13 @@ public class TablesDump extends BaseTable
 			System.out.println("\t[Passowrd]");
 			System.out.println("\t[JDBC Driver]");
 			System.out.println("\t[Schema Name Pattern]");
+			System.out.println("\t[Insert Schema Name]");
+			System.out.println("\t[Rows per INSERT]");
+			System.out.println("\t[Fetch Size]");
+			System.out.println("\t[Threads]");
+			System.out.println("\t[Partitions per Table]");
+			System.out.println("\t[Checkpoint File]");
+			System.out.println("\t[Rows per Chunk]");
 		}
 
 		catch (final Exception ex) { ex.printStackTrace(); }
@@ -0,0 +1,392 @@
+package com.small.library.doc;
+
+import java.io.*;
+import java.sql.*;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.small.library.generator.*;
+import com.small.library.metadata.*;
+
+/***************************************************************************************
+*
+*	Exports the contents of database tables as gzip'd delimited files for the native
+*	bulk loaders. Each table is written to a data file plus a manifest that lists
+*	its columns, one per line as the column name, a tab, and the type definition, in
+*	the order of the fields in the data file.
+*
+*	TSV files follow the options of the manifest COPY of the <I>RedshiftBatch</I> classes:
+*	tab delimited, gzip'd, NULL as an empty field, and ESCAPE. Tabs, line breaks and
+*	backslashes in values are preceded by a backslash, i.e. the character itself follows
+*	the backslash. Load with:
+*
+*	<PRE>
+*	Redshift: COPY table (columns) FROM 's3://...' ... emptyasnull gzip delimiter '\t' escape
+*	MySQL:    LOAD DATA LOCAL INFILE 'file' INTO TABLE table FIELDS TERMINATED BY '\t' (@c1, ...) SET c1 = NULLIF(@c1, ''), ...
+*	</PRE>
+*
+*	TEXT files are the PostgreSQL text format, which Redshift would load literally: tab
+*	delimited, gzip'd, NULL as an empty field, and tabs, line breaks and backslashes
+*	escaped as \t, \n, \r, and \\. Load with:
+*
+*	<PRE>
+*	PostgreSQL: COPY table (columns) FROM PROGRAM 'gunzip -c file' WITH (FORMAT text, NULL '')
+*	</PRE>
+*
+*	CSV files follow RFC 4180 with NULL as an unquoted empty field and empty strings as
+*	a quoted empty field. Load with Redshift <CODE>CSV emptyasnull gzip</CODE>, PostgreSQL
+*	<CODE>FORMAT csv</CODE>, or MySQL <CODE>FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '"' ESCAPED BY ''</CODE>.
+*
+*	The data files are written through an <I>OutputSink</I> that is always gzip'd. Its
+*	part size splits large tables into numbered part files, e.g. one per Redshift slice.
+*
+*	@author David Small
+*	@version 4.0
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public class TablesExport extends BaseTable
+{
+	public static final int FETCH_SIZE_DEFAULT = TablesDump.FETCH_SIZE_DEFAULT;
+	public static final int BUFFER_SIZE = 1 << 20;	// Size of the character buffer of the data files.
+	public static final String EXTENSION_MANIFEST = ".columns";
+
+	/** Delimited file formats. */
+	public enum Format
+	{
+		TSV('\t', ".tsv"),
+		TEXT('\t', ".txt"),
+		CSV(',', ".csv");
+
+		public final char delimiter;
+		public final String extension;
+
+		private Format(final char delimiter, final String extension)
+		{
+			this.delimiter = delimiter;
+			this.extension = extension;
+		}
+	}
+
+	private static volatile OutputSink dataSink = null;
+
+	private final DataSource dataSource;
+	private final Format format;
+	private final int fetchSize;
+	private final OutputSink sink;
+	private File output;
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream of the manifest.
+		@param dataSource Data Source.
+		@param format Format of the data files.
+		@param fetchSize Number of rows fetched from the cursor per round trip.
+	*/
+	public TablesExport(final PrintWriter writer, final DataSource dataSource, final Format format, final int fetchSize)
+	{
+		this(writer, null, dataSource, format, fetchSize);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream of the manifest.
+		@param table A table record object to base the output on.
+		@param dataSource Data Source.
+		@param format Format of the data files.
+		@param fetchSize Number of rows fetched from the cursor per round trip.
+	*/
+	public TablesExport(final PrintWriter writer, final Table table, final DataSource dataSource,
+		final Format format, final int fetchSize)
+	{
+		this(writer, table, dataSource, format, fetchSize, getDataSink());
+	}
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream of the manifest.
+		@param table A table record object to base the output on.
+		@param dataSource Data Source.
+		@param format Format of the data files.
+		@param fetchSize Number of rows fetched from the cursor per round trip.
+		@param sink Writes the data files. Must be gzip'd.
+	*/
+	public TablesExport(final PrintWriter writer, final Table table, final DataSource dataSource,
+		final Format format, final int fetchSize, final OutputSink sink)
+	{
+		super(writer, null, table);
+		this.dataSource = dataSource;
+		this.format = format;
+		this.fetchSize = Math.max(fetchSize, 0);
+		this.sink = sink;
+	}
+
+	/** Helper method - gets the gzip'd sink of the data files. Takes the threads and part size of the default
+	    sink, and is reused while they are the same so that the tables share its compression threads.
+	*/
+	public static OutputSink getDataSink()
+	{
+		final OutputSink o = OutputSink.getDefault();
+		final int threads = o.gzip ? o.threads : Runtime.getRuntime().availableProcessors();
+		final OutputSink value = dataSink;
+		if ((null != value) && (threads == value.threads) && (o.partSize == value.partSize))
+			return value;
+
+		return dataSink = new OutputSink(true, threads, BUFFER_SIZE, o.partSize);
+	}
+
+	/** Accessor method - gets the format of the data files. */
+	public Format getFormat() { return format; }
+
+	/** Accessor method - gets the number of rows fetched from the cursor per round trip. */
+	public int getFetchSize() { return fetchSize; }
+
+	/** Accessor method - gets the sink that writes the data files. */
+	public OutputSink getSink() { return sink; }
+
+	/** Helper method - opens the output stream of the manifest. The data file is written next to it. */
+	@Override
+	public PrintWriter createWriter(final File output, final OutputSink sink) throws IOException
+	{
+		this.output = output;
+
+		return super.createWriter(output, sink);
+	}
+
+	/** Accessor method - gets the data file of a table. The sink adds the gzip extension and any part numbers. */
+	public File getDataFile(final Table table)
+	{
+		return new File((null != output) ? output.getAbsoluteFile().getParentFile() : new File("."), getTableFileName(table, format.extension));
+	}
+
+	@Override
+	public void generate() throws GeneratorException, IOException
+	{
+		final Table table = getTable();
+		final ColumnInfo[] columns;
+		try { columns = getColumnInfo(); }
+		catch (final SQLException ex) { throw new GeneratorException(ex); }
+
+		final StringBuilder select = new StringBuilder("SELECT ");
+		for (int i = 0; i < columns.length; i++)
+		{
+			if (0 < i)
+				select.append(", ");
+			select.append(columns[i].columnName);
+		}
+		select.append(" FROM ").append((null != table.schema) ? table.schema + "." + table.name : table.name);
+
+		final Field[] fields = new Field[columns.length];
+		for (int i = 0; i < columns.length; i++)
+			fields[i] = getField(columns[i]);
+
+		final File file = getDataFile(table);
+		try (final Connection connection = dataSource.getConnection())
+		{
+			final boolean autoCommit = connection.getAutoCommit();
+			if (autoCommit)
+				connection.setAutoCommit(false);	// PostgreSQL only honors the fetch size outside of auto-commit mode.
+
+			try (final Statement stmt = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			     final PrintWriter out = super.createWriter(file, sink))
+			{
+				stmt.setFetchSize(fetchSize);
+
+				try (final ResultSet rs = stmt.executeQuery(select.toString()))
+				{
+					while (rs.next())
+					{
+						for (int i = 0; i < fields.length; i++)
+						{
+							if (0 < i)
+								out.write(format.delimiter);
+
+							final String value = fields[i].get(rs, i + 1);
+							if (null != value)
+								write(value, out);
+						}
+
+						out.write('\n');
+					}
+				}
+
+				if (out.checkError())
+					throw new IOException("Failed to write the data file '" + file + "'.");
+			}
+			finally
+			{
+				if (autoCommit)
+				{
+					connection.rollback();	// Read only, so nothing to keep.
+					connection.setAutoCommit(true);
+				}
+			}
+		}
+		catch (final SQLException ex) { throw new GeneratorException(ex); }
+
+		// Write the manifest.
+		for (final ColumnInfo column : columns)
+			writeLine(column.columnName + "\t" + column.typeDefinition);
+	}
+
+	/** Helper method - writes a non-NULL value escaped for the format. Copies the runs between special
+	    characters directly to the output stream.
+	*/
+	private void write(final String value, final Writer out) throws IOException
+	{
+		final int length = value.length();
+		if (Format.CSV == format)
+		{
+			boolean quote = (0 == length);	// Distinguishes an empty string from NULL.
+			for (int i = 0; !quote && (i < length); i++)
+			{
+				final char c = value.charAt(i);
+				quote = (',' == c) || ('"' == c) || ('\n' == c) || ('\r' == c);
+			}
+
+			if (!quote)
+			{
+				out.write(value);
+				return;
+			}
+
+			out.write('"');
+			int start = 0;
+			for (int i = value.indexOf('"'); 0 <= i; i = value.indexOf('"', start))
+			{
+				out.write(value, start, (i + 1) - start);
+				out.write('"');
+				start = i + 1;
+			}
+			out.write(value, start, length - start);
+			out.write('"');
+
+			return;
+		}
+
+		int start = 0;
+		for (int i = 0; i < length; i++)
+		{
+			final char c = value.charAt(i);
+			final char escape;
+			switch (c)
+			{
+				case '\t': escape = 't'; break;
+				case '\n': escape = 'n'; break;
+				case '\r': escape = 'r'; break;
+				case '\\': escape = '\\'; break;
+				default: continue;
+			}
+
+			out.write(value, start, i - start);
+			out.write('\\');
+			out.write((Format.TEXT == format) ? escape : c);	// PostgreSQL takes the letter, the ESCAPE option the character itself.
+			start = i + 1;
+		}
+		out.write(value, start, length - start);
+	}
+
+	/** Helper method - chooses the getter of a column once per table from its JDBC type. Booleans are written
+	    as 1 and 0, which all three loaders accept. Everything else uses the driver's text representation.
+	*/
+	private static Field getField(final ColumnInfo column)
+	{
+		switch (column.dataType)
+		{
+			case Types.BIGINT, Types.INTEGER, Types.SMALLINT, Types.TINYINT:
+				if ((null != column.dataTypeName) && (0 <= column.dataTypeName.toLowerCase().indexOf("unsigned")))
+					break;	// Unsigned BIGINT values can exceed a long.
+
+				return (rs, i) -> {
+					final long value = rs.getLong(i);
+					return rs.wasNull() ? null : Long.toString(value);
+				};
+
+			case Types.BIT, Types.BOOLEAN:
+				return (rs, i) -> {
+					final boolean value = rs.getBoolean(i);
+					return rs.wasNull() ? null : (value ? "1" : "0");
+				};
+		}
+
+		return (rs, i) -> rs.getString(i);
+	}
+
+	/** Gets the text of a column from the current row of a cursor. */
+	@FunctionalInterface
+	private interface Field
+	{
+		/** Gets the value.
+			@param rs cursor positioned on a row.
+			@param index position of the column in the cursor.
+			@return NULL if the value is NULL.
+		*/
+		String get(ResultSet rs, int index) throws SQLException;
+	}
+
+	/** Accessor method - gets the name of the output file based on a table name.
+	    Used by BaseTable.generatorTableResources. The output file is the manifest.
+	*/
+	@Override
+	public String getOutputFileName(final Table table)
+	{
+		return getTableFileName(table, EXTENSION_MANIFEST);
+	}
+
+	/** Command line entry point.
+		@param strArg1 Output directory. Must exist.
+		@param strArg2 URL to the data source.
+		@param strArg3 data source login name.
+		@param strArg4 data source password.
+		@param strArg5 optional JDBC driver class name.
+		@param strArg6 optional database schema name of the tables to query.
+		@param strArg7 optional format, "tsv", "text", or "csv". Defaults to "tsv".
+		@param strArg8 optional number of rows fetched per round trip. Defaults to 1,000.
+		@param strArg9 optional number of tables exported at once. Defaults to one.
+	*/
+	public static void main(final String... args)
+	{
+		try
+		{
+			// Have enough arguments been supplied?
+			if (3 > args.length)
+				throw new IllegalArgumentException("Please supply at least 3 arguments.");
+
+			final File output = new File(args[0]);
+			if (!output.isDirectory())
+				throw new IllegalArgumentException("The output directory '" + args[0] + "' does not exist.");
+
+			final Format format;
+			try { format = Format.valueOf(extractArgument(args, 6, Format.TSV.name()).toUpperCase()); }
+			catch (final IllegalArgumentException ex) { throw new IllegalArgumentException("The format must be 'tsv', 'text', or 'csv'."); }
+			final int fetchSize = Integer.parseInt(extractArgument(args, 7, FETCH_SIZE_DEFAULT + ""));
+			final int threads = Integer.parseInt(extractArgument(args, 8, "1"));
+
+			final List<Table> tables = extractTables(args, 1, 5);
+			final DataSource dataSource = extractDataSource(args, 1, threads);
+			generateTableResources(() -> new TablesExport(null, dataSource, format, fetchSize), tables, output, threads);
+		}
+
+		catch (final IllegalArgumentException ex)
+		{
+			final String message = ex.getMessage();
+
+			if (null != message)
+			{
+				System.out.println(message);
+				System.out.println();
+			}
+
+			System.out.println("Usage: java " + TablesExport.class.getName() + " Output directory");
+			System.out.println("\tJDBC_URL");
+			System.out.println("\tUser_ID");
+			System.out.println("\t[Passowrd]");
+			System.out.println("\t[JDBC Driver]");
+			System.out.println("\t[Schema Name Pattern]");
+			System.out.println("\t[Format (tsv, text, or csv)]");
+			System.out.println("\t[Fetch Size]");
+			System.out.println("\t[Threads]");
+		}
+
+		catch (final Exception ex) { ex.printStackTrace(); }
+	}
+}
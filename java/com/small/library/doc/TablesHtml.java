@@ -4,14 +4,18 @@ import static com.small.library.generator.Base.*;
 
 import java.io.*;
 import java.sql.*;
-import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.sql.DataSource;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 
+import com.small.library.generator.BaseTable;
 import com.small.library.metadata.*;
 
 /***************************************************************************************
@@ -26,9 +30,17 @@ import com.small.library.metadata.*;
 
 public class TablesHtml
 {
+	public static final String COUNT_EXACT = "exact";
+	public static final String COUNT_ESTIMATED = "estimated";
+	public static final String COUNT_NONE = "none";
+	public static final String FILE_INDEX = "index.html";
+
 	private final DataSource dataSource;
 	private final PrintWriter out;
 	private final String schemaNamePattern;
+	private final File cache;
+	private final RowCountProvider counter;
+	private final boolean pages;	// Indicates that each table is on its own page.
 
 	/** Constructor - constructs a populated object.
 		@param dataSource The database connection's connection factory.
@@ -38,10 +50,50 @@ public class TablesHtml
 	*/
 	public TablesHtml(final DataSource dataSource, final PrintWriter writer,
 		final String schemaNamePattern)
+	{
+		this(dataSource, writer, schemaNamePattern, null);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param dataSource The database connection's connection factory.
+		@param writer HTML document's output stream.
+		@param strSchemaName Schema Name pattern to filter the tables list by.
+			Use <CODE>null</CODE> for no filter.
+		@param cache Optional file of the persisted metadata snapshot. See <I>DBMetadata.snapshot</I>.
+	*/
+	public TablesHtml(final DataSource dataSource, final PrintWriter writer,
+		final String schemaNamePattern, final File cache)
+	{
+		this(dataSource, writer, schemaNamePattern, cache, RowCountProvider.exact(dataSource, 1));
+	}
+
+	/** Constructor - constructs a populated object.
+		@param dataSource The database connection's connection factory.
+		@param writer HTML document's output stream.
+		@param strSchemaName Schema Name pattern to filter the tables list by.
+			Use <CODE>null</CODE> for no filter.
+		@param cache Optional file of the persisted metadata snapshot. See <I>DBMetadata.snapshot</I>.
+		@param counter Optional provider of the table row counts. Use <CODE>null</CODE> to skip the counts.
+	*/
+	public TablesHtml(final DataSource dataSource, final PrintWriter writer,
+		final String schemaNamePattern, final File cache, final RowCountProvider counter)
+	{
+		this(dataSource, writer, schemaNamePattern, cache, counter, false);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param pages Indicates that each table is on its own page, so links to tables and
+			the contents refer to the other pages rather than to anchors.
+	*/
+	private TablesHtml(final DataSource dataSource, final PrintWriter writer,
+		final String schemaNamePattern, final File cache, final RowCountProvider counter, final boolean pages)
 	{
 		this.dataSource = dataSource;
 		out = writer;
 		this.schemaNamePattern = schemaNamePattern;
+		this.cache = cache;
+		this.counter = counter;
+		this.pages = pages;
 	}
 
 	public void write(final String strValue) throws IOException { out.print(strValue); }
@@ -97,20 +149,127 @@ public class TablesHtml
 	public String createName(String name, String strValue)
 	{ return "<A NAME=\"" + name + "\">" + strValue + "</A>"; }
 
+	/** Helper method - creates a link to a table's documentation. */
+	public String createTableLink(final String schema, final String name)
+	{
+		return createLink(pages ? getPageName(schema, name) : "#" + name, name);
+	}
+
+	/** Helper method - gets the file name of a table's page in the multi-file mode. Prefixed so that a table
+	 *  named "index" cannot overwrite the index page.
+	 */
+	public static String getPageName(final String schema, final String name)
+	{
+		return "table-" + ((null != schema) ? schema + "." : "") + name + ".html";
+	}
+
 	public void run()
 		throws SQLException, IOException
 	{
 		var metadata = new DBMetadata(dataSource);
-		var tables = metadata
+		try (var session = metadata.openSession())	// Written sequentially so serve all the tables from one connection.
+		{
+			if (null != cache)
+				metadata.snapshot(null, cache, BaseTable.getMetadataMaxAge());
+
+			var tables = getTables(metadata);
+			
+			writeHeader(metadata.getCatalog());
+			writeContents(tables);
+			run(tables);
+			writeFooter();
+
+			System.out.print("Metadata calls:\n" + session);
+		}
+	}
+
+	/** Action method - writes an index page with the contents plus a page per table to the directory.
+	    The table pages are written concurrently. The metadata is loaded once for the whole catalog, or
+	    each table is preloaded on a single connection when the tables are filtered, so that the pages
+	    do not make several round trips per table.
+		@param directory Directory to output the pages.
+		@param threads Maximum number of table pages written at once.
+	*/
+	public void run(final File directory, final int threads)
+		throws SQLException, IOException
+	{
+		final long start = System.currentTimeMillis();
+		final var metadata = new DBMetadata(dataSource);
+		if (null != cache)
+			metadata.snapshot(null, cache, BaseTable.getMetadataMaxAge());
+		else if (StringUtils.isEmpty(schemaNamePattern))
+			metadata.snapshot(null);
+
+		final var tables = getTables(metadata);
+		final String catalog = metadata.getCatalog();
+
+		// Write the table pages.
+		final int size = tables.size();
+		final AtomicInteger completed = new AtomicInteger();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, size)));
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(size);
+			for (final Table table : tables)
+			{
+				futures.add(executor.submit(() -> {
+					table.preload();
+
+					try (final PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(new File(directory, getPageName(table.schema, table.name))))))
+					{
+						final TablesHtml page = new TablesHtml(dataSource, writer, schemaNamePattern, cache, null, true);
+						page.writeHeader(catalog);
+						page.run(table, 0);
+						page.writeFooter();
+					}
+
+					if (0 == (completed.incrementAndGet() % 100))
+						System.out.println("Finished " + completed.get() + " of " + size + " table pages.");
+
+					return null;
+				}));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				try { future.get(); }
+				catch (final InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+					throw new IOException(ex);
+				}
+				catch (final ExecutionException ex)
+				{
+					final Throwable cause = ex.getCause();
+					if (cause instanceof SQLException) throw (SQLException) cause;
+					if (cause instanceof IOException) throw (IOException) cause;
+					throw new IOException(cause);
+				}
+			}
+		}
+		finally { executor.shutdownNow(); }
+
+		// Write the index page.
+		try (final PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(new File(directory, FILE_INDEX)))))
+		{
+			final TablesHtml index = new TablesHtml(dataSource, writer, schemaNamePattern, cache, counter, true);
+			index.writeHeader(catalog);
+			index.writeContents(tables);
+			index.writeFooter();
+		}
+
+		System.out.println("Finished " + size + " table pages with " + threads + " threads in " +
+			(((float) (System.currentTimeMillis() - start)) / 1000f) + " seconds.");
+	}
+
+	/** Helper method - gets the tables to document. */
+	private List<Table> getTables(final DBMetadata metadata) throws SQLException
+	{
+		return metadata
 			.getTables(schemaNamePattern, "TABLE")
 			.stream()
 			.filter(i -> !i.name.startsWith("."))	// Exclude Elastic build-in indices.
 			.toList();
-		
-		writeHeader(metadata.getCatalog());
-		writeContents(tables);
-		run(tables);
-		writeFooter();
 	}
 
 	private void writeHeader(final String catalog) throws SQLException, IOException
@@ -154,21 +313,17 @@ public class TablesHtml
 		writeDetailHeader("# Exported<br />Keys");
 		closeRow();
 
-		String count = null;
-		final NumberFormat formatter = NumberFormat.getNumberInstance();
+		final Map<Table, RowCount> counts = count(records);
 
 		int i = 1;
 		for (final Table record : records)
 		{
-			Long count_ = count(record);
-			if (null == count_)
-				count = "N/A";
-			else
-				count = formatter.format(count_);
+			final RowCount count_ = counts.get(record);
+			final String count = (null != count_) ? count_.toString() : "N/A";
 
 			openRow();
 			writeDetail(i++);
-			writeDetail(createLink("#" + record.name, record.name));
+			writeDetail(createTableLink(record.schema, record.name));
 			writeDetail(record.remarks);
 			writeDetail(count);
 			writeDetail(record.getColumns().size());
@@ -185,20 +340,25 @@ public class TablesHtml
 		closeTable();
 	}
 
-	private Long count(final Table table) throws SQLException
+	/** Helper method - counts the rows of all the tables at once so that the provider can read statistics in one
+	    query or run the exact counts concurrently. Empty when the database is unavailable (i.e. offline metadata).
+	*/
+	private Map<Table, RowCount> count(final List<Table> tables)
 	{
+		if (null == counter) return Map.of();
 
-		try (final Connection connection = dataSource.getConnection();
-		     final Statement stmt = connection.createStatement())
+		final long time = System.currentTimeMillis();
+		try
+		{
+			final Map<Table, RowCount> o = counter.count(tables);
+			System.out.println("Counted " + o.size() + " of " + tables.size() + " tables in " + (((float) (System.currentTimeMillis() - time)) / 1000f) + " seconds.");
+
+			return o;
+		}
+		catch (final SQLException ex)
 		{
-			stmt.setQueryTimeout(90);	// Some counts just take too long.
-		    try (final ResultSet rs = stmt.executeQuery("SELECT COUNT(1) FROM " + table.name))
-		    {
-		    	if (rs.next()) return rs.getLong(1);
-	
-		    	return 0L;
-		    }
-			catch (SQLException ex) { /** Assume a timeout. */ return null; }
+			System.out.println("Could not count the rows - " + ex.getMessage());
+			return Map.of();
 		}
 	}
 
@@ -228,7 +388,7 @@ public class TablesHtml
 		runExportedKeys(table.getExportedKeys());
 
 		writeBreak();
-		writeLine(createLink("#Contents", "Goto Contents"));
+		writeLine(createLink(pages ? FILE_INDEX : "#Contents", "Goto Contents"));
 		writeLine("</DIV>");
 	}
 
@@ -371,7 +531,7 @@ public class TablesHtml
 			writeDetail(i++);
 			writeDetail(o.name);
 			writeKeys(o.fks);
-			writeDetail(createLink("#" + o.pkTable, o.pkTable));
+			writeDetail(createTableLink(o.pkSchema, o.pkTable));
 			writeKeys(o.pks);
 			closeRow();
 		}
@@ -406,7 +566,7 @@ public class TablesHtml
 			openRow();
 			writeDetail(i++);
 			writeDetail(o.name);
-			writeDetail(createLink("#" + o.fkTable, o.fkTable));
+			writeDetail(createTableLink(o.fkSchema, o.fkTable));
 			writeKeys(o.fks);
 			closeRow();
 		}
@@ -420,22 +580,70 @@ public class TablesHtml
 		writeLine("</HTML>");
 	}
 
+	/** Creates the row count provider named by a command line argument. */
+	public static RowCountProvider counter(final String mode, final DataSource dataSource, final int threads) throws SQLException
+	{
+		if (COUNT_NONE.equalsIgnoreCase(mode)) return null;
+		if (COUNT_EXACT.equalsIgnoreCase(mode)) return RowCountProvider.exact(dataSource, threads);
+		if (!COUNT_ESTIMATED.equalsIgnoreCase(mode))
+			throw new IllegalArgumentException("The row count mode '" + mode + "' must be one of " + COUNT_EXACT + ", " + COUNT_ESTIMATED + ", or " + COUNT_NONE + ".");
+
+		try { return RowCountProvider.estimated(dataSource, threads); }
+		catch (final SQLException ex)	// Database unavailable (i.e. offline metadata).
+		{
+			System.out.println("Skipping the row counts - " + ex.getMessage());
+			return null;
+		}
+	}
+
+	/** Command line entry point.
+		@param args1 Output HTML file. If an existing directory is supplied, writes an index page
+			plus a page per table to the directory in parallel.
+		@param args2 URL to the data source.
+		@param args3 data source login name.
+		@param args4 data source password.
+		@param args5 optional JDBC driver class name.
+		@param args6 optional table name pattern.
+		@param args7 optional row count mode. Defaults to exact.
+		@param args8 optional number of threads. Defaults to one.
+	*/
 	public static void main(final String... args)
 	{
-		try (final PrintWriter writer = new PrintWriter(new FileWriter(extractFile(args, 0, "output"))))
+		try
 		{
-			(new TablesHtml(extractDataSource(args, 1), writer,
-				extractArgument(args, 5, null))).run();
+			if (0 == args.length)
+				throw new IllegalArgumentException();
+
+			var cache = System.getProperty(BaseTable.PROPERTY_METADATA_CACHE);
+			var threads = Integer.parseInt(extractArgument(args, 7, "1"));
+			var dataSource = extractDataSource(args, 1, threads);
+			var output = new File(args[0]);
+			var cacheFile = (null != cache) ? new File(cache, SchemaSnapshot.fileName(args[1], null)) : null;
+			var counter = counter(extractArgument(args, 6, COUNT_EXACT), dataSource, threads);
+
+			// Write an index page plus a page per table.
+			if (output.isDirectory())
+			{
+				(new TablesHtml(dataSource, null, extractArgument(args, 5, null), cacheFile, counter)).run(output, threads);
+				return;
+			}
+
+			try (final PrintWriter writer = new PrintWriter(new FileWriter(extractFile(args, 0, "output"))))
+			{
+				(new TablesHtml(dataSource, writer, extractArgument(args, 5, null), cacheFile, counter)).run();
+			}
 		}
 
 		catch (final IllegalArgumentException ex)
 		{
-			System.out.println("Usage: java " + TablesHtml.class.getName() + " HTML_File");
+			System.out.println("Usage: java " + TablesHtml.class.getName() + " HTML_File or Directory");
 			System.out.println("\tJDBC_Url");
 			System.out.println("\tUser_ID");
 			System.out.println("\t[Passowrd]");
 			System.out.println("\t[JDBC Driver]");
 			System.out.println("\t[Schema Name Pattern]");
+			System.out.println("\t[Row Counts (" + COUNT_EXACT + ", " + COUNT_ESTIMATED + ", " + COUNT_NONE + ")]");
+			System.out.println("\t[Threads]");
 		}
 
 		catch (final Exception ex) { ex.printStackTrace(); }
@@ -0,0 +1,164 @@
+package com.small.library.ejb.gen;
+
+import java.io.*;
+import java.util.*;
+
+import org.apache.commons.lang3.StringUtils;
+
+import com.small.library.metadata.*;
+
+/***************************************************************************************
+*
+*	Base class for the Redshift batch and loader generators. Holds the batch size ranges
+*	of both and writes the adaptive batch sizing of the generated batch classes, whose
+*	<I>load</I> method times each COPY. The generated loaders use a fixed batch size within
+*	the range since their base class runs the COPY.
+*
+*	@author David Small
+*	@version 4.0
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public abstract class RedshiftBase extends EntityBeanBase
+{
+	public static final int BATCH_SIZE_DEFAULT = 10000;	// Initial number of rows per batch.
+	public static final int MIN_BATCH_SIZE_DEFAULT = 1000;
+	public static final int MAX_BATCH_SIZE_DEFAULT = 100000;
+
+	private BatchSizes defaultBatchSizes = new BatchSizes(MIN_BATCH_SIZE_DEFAULT, MAX_BATCH_SIZE_DEFAULT);
+	private Map<String, BatchSizes> tableBatchSizes = Map.of();
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream.
+		@param author Name of the author.
+		@param table A table record object to base the output on.
+		@param packageName Package name of the wrapper class.
+		@param version Version of the generated class.
+	*/
+	public RedshiftBase(final PrintWriter writer,
+		final String author, final Table table, final String packageName,
+		final String version)
+	{
+		super(writer, author, table, packageName, version);
+	}
+
+	/** Accessor method - gets the minimum and maximum batch sizes of a table. */
+	public BatchSizes getBatchSizes(final Table table)
+	{
+		return tableBatchSizes.getOrDefault(table.name.toLowerCase(), defaultBatchSizes);
+	}
+
+	/** Mutator method - sets the minimum and maximum batch sizes from a generator argument.
+		@param value comma separated list of "min:max" ranges. A range prefixed with
+			"table=" overrides the range of that table only. The unprefixed range is
+			the default of all other tables, e.g. "1000:100000,wide_table=200:5000".
+		@throws IllegalArgumentException if a range is malformed.
+	*/
+	public void setBatchSizes(final String value)
+	{
+		if (StringUtils.isBlank(value)) return;
+
+		var tables = new HashMap<String, BatchSizes>();
+		for (var item : value.split(","))
+		{
+			var i = item.indexOf('=');
+			var range = BatchSizes.parse(item.substring(i + 1).trim());
+			if (0 > i)
+				defaultBatchSizes = range;
+			else
+				tables.put(item.substring(0, i).trim().toLowerCase(), range);
+		}
+
+		tableBatchSizes = tables;
+	}
+
+	/** Output method - writes the batch size constants. */
+	protected void writeBatchSizeConstants() throws IOException
+	{
+		var sizes = getBatchSizes(getTable());
+
+		writeLine("/** Initial size of bundle to load into S3 & subsequently Redshift. Adapts between the minimum and maximum. */", 1);
+		writeLine("public static final int BATCH_SIZE = " + sizes.clamp(BATCH_SIZE_DEFAULT) + ";", 1);
+		writeLine("public static final int MIN_BATCH_SIZE = " + sizes.min + ";", 1);
+		writeLine("public static final int MAX_BATCH_SIZE = " + sizes.max + ";", 1);
+		writeLine();
+		writeLine("/** Target number of bytes written per batch. Keeps wide rows from exhausting the heap. */", 1);
+		writeLine("public static final long TARGET_BATCH_BYTES = 128L * 1024L * 1024L;", 1);
+		writeLine();
+		writeLine("/** Target COPY latency per batch. Keeps small tables from paying the COPY overhead on tiny batches. */", 1);
+		writeLine("public static final long TARGET_COPY_MILLIS = 20000L;", 1);
+	}
+
+	/** Output method - writes the adaptive batch size state. */
+	protected void writeBatchSizeFields() throws IOException
+	{
+		writeLine();
+		writeLine("private volatile int batchSize = BATCH_SIZE;", 1);
+		writeLine("private volatile double throughput;", 1);
+		writeLine("private volatile long bytesPerRow;", 1);
+	}
+
+	/** Output method - writes the batch size accessor, metrics, and the method that adapts the batch size. */
+	protected void writeBatchSizeMethods() throws IOException
+	{
+		writeLine();
+		writeLine("@Override", 1);
+		writeLine("public int getBatchSize() { return batchSize; }", 1);
+		writeLine();
+		writeLine("/** Metric - rows per second of the COPY of the last batch. Excludes writing the slices. */", 1);
+		writeLine("public double getThroughput() { return throughput; }", 1);
+		writeLine();
+		writeLine("/** Metric - average number of bytes written per row by the last batch. */", 1);
+		writeLine("public long getBytesPerRow() { return bytesPerRow; }", 1);
+		writeLine();
+		writeLine("/** Sizes the next batch from the bytes written and the COPY latency of the last batch.", 1);
+		writeLine(" *  Each step at most doubles or halves the size to damp noisy measurements.", 1);
+		writeLine(" *  Called by load after each COPY completes.", 1);
+		writeLine(" */", 1);
+		writeLine("public void onBatchLoaded(final int rows, final long bytes, final long millis)", 1);
+		writeLine("{", 1);
+		writeLine("if (0 >= rows) return;", 2);
+		writeLine();
+		writeLine("var elapsed = Math.max(millis, 1L);", 2);
+		writeLine("var size = Math.max(bytes / rows, 1L);", 2);
+		writeLine("throughput = (rows * 1000d) / elapsed;", 2);
+		writeLine("bytesPerRow = size;", 2);
+		writeLine();
+		writeLine("var current = batchSize;", 2);
+		writeLine("var next = Math.min(TARGET_BATCH_BYTES / size, (long) (rows * (((double) TARGET_COPY_MILLIS) / elapsed)));", 2);
+		writeLine("next = Math.max(current / 2L, Math.min(current * 2L, next));", 2);
+		writeLine("batchSize = (int) Math.max(MIN_BATCH_SIZE, Math.min(MAX_BATCH_SIZE, next));", 2);
+		writeLine("}", 1);
+	}
+
+	/** Value object - the minimum and maximum number of rows per batch. */
+	public static class BatchSizes
+	{
+		public final int min;
+		public final int max;
+
+		public BatchSizes(final int min, final int max)
+		{
+			if ((1 > min) || (min > max))
+				throw new IllegalArgumentException("The batch size range '" + min + ":" + max + "' must be positive with the minimum no greater than the maximum.");
+
+			this.min = min;
+			this.max = max;
+		}
+
+		/** Helper method - parses a "min:max" range. */
+		public static BatchSizes parse(final String value)
+		{
+			var i = value.indexOf(':');
+			if (0 > i)
+				throw new IllegalArgumentException("The batch size range '" + value + "' must be in the form 'min:max'.");
+
+			try { return new BatchSizes(Integer.parseInt(value.substring(0, i).trim()), Integer.parseInt(value.substring(i + 1).trim())); }
+			catch (final NumberFormatException ex) { throw new IllegalArgumentException("The batch size range '" + value + "' is not numeric."); }
+		}
+
+		/** Helper method - restricts a batch size to the range. */
+		public int clamp(final int value) { return Math.max(min, Math.min(max, value)); }
+	}
+}
@@ -16,9 +16,12 @@ import com.small.library.metadata.*;
 *
 ***************************************************************************************/
 
-public class RedshiftBatch extends EntityBeanBase
+public class RedshiftBatch extends RedshiftBase
 {
 	public static final String CLASS_NAME_SUFFIX = "Batch";
+	public static final int SLICES_DEFAULT = 0;	// Zero uses the slice count of the cluster at runtime.
+
+	private final int slices;
 
 	/** Helper method - gets the full class/interface name of the EJB
 	    class from the entity name.
@@ -37,7 +40,7 @@ public class RedshiftBatch extends EntityBeanBase
 	public RedshiftBatch(PrintWriter writer,
 		String author, Table table)
 	{
-		super(writer, author, table);
+		this(writer, author, table, null);
 	}
 
 	/** Constructor - constructs a populated object.
@@ -49,7 +52,7 @@ public class RedshiftBatch extends EntityBeanBase
 	public RedshiftBatch(PrintWriter writer,
 		String author, Table table, String packageName)
 	{
-		super(writer, author, table, packageName);
+		this(writer, author, table, packageName, null);
 	}
 
 	public RedshiftBatch(final String author, final String packageName, final String version)
@@ -57,6 +60,18 @@ public class RedshiftBatch extends EntityBeanBase
 		this(null, author, null, packageName, version);
 	}
 
+	/** Constructor - constructs a populated object.
+		@param author Name of the author.
+		@param packageName Package name of the wrapper class.
+		@param version Version of the generated class.
+		@param slices Number of gzip slices each batch is split into. Zero uses the
+			slice count of the cluster at runtime.
+	*/
+	public RedshiftBatch(final String author, final String packageName, final String version, final int slices)
+	{
+		this(null, author, null, packageName, version, slices);
+	}
+
 	/** Constructor - constructs a populated object.
 		@param writer The output stream.
 		@param author Name of the author.
@@ -66,10 +81,31 @@ public class RedshiftBatch extends EntityBeanBase
 	public RedshiftBatch(PrintWriter writer,
 		String author, Table table, String packageName,
 		String version)
+	{
+		this(writer, author, table, packageName, version, SLICES_DEFAULT);
+	}
+
+	/** Constructor - constructs a populated object.
+		@param writer The output stream.
+		@param author Name of the author.
+		@param table A table record object to base the output on.
+		@param packageName Package name of the wrapper class.
+		@param version Version of the generated class.
+		@param slices Number of gzip slices each batch is split into. Zero uses the
+			slice count of the cluster at runtime.
+	*/
+	public RedshiftBatch(final PrintWriter writer,
+		final String author, final Table table, final String packageName,
+		final String version, final int slices)
 	{
 		super(writer, author, table, packageName, version);
+
+		this.slices = Math.max(slices, 0);
 	}
 
+	/** Accessor method - gets the number of gzip slices each batch is split into. */
+	public int getSlices() { return slices; }
+
 	@Override
 	public void generate() throws GeneratorException, IOException
 	{
@@ -116,6 +152,14 @@ public class RedshiftBatch extends EntityBeanBase
 
 		String name = getObjectName();
 		writeLine("import java.io.*;");
+		writeLine("import java.nio.charset.StandardCharsets;");
+		writeLine("import java.sql.Connection;");
+		writeLine("import java.sql.SQLException;");
+		writeLine("import java.sql.Timestamp;");
+		writeLine("import java.util.ArrayList;");
+		writeLine("import java.util.List;");
+		writeLine("import java.util.concurrent.*;");
+		writeLine("import java.util.zip.GZIPOutputStream;");
 		writeLine();
 		writeLine("import " + basePackageName + "." + getAppName() + "BatchConfig;");
 		writeLine("import " + domainPackageName + ".dwservice.io.CSVWriter;");
@@ -149,12 +193,26 @@ public class RedshiftBatch extends EntityBeanBase
 		writeLine("/** Name of process. */", 1);
 		writeLine("public static final String NAME = \"" + name + "\";", 1);
 		writeLine();
-		writeLine("/** Size of bundle to load into S3 & subsequently Redshift. */", 1);
-		writeLine("public static final int BATCH_SIZE = 10000;", 1);
+		writeBatchSizeConstants();
+		writeLine();
+		writeLine("/** Number of gzip slices each batch is split into and written concurrently. Zero uses the slice count of the cluster. */", 1);
+		writeLine("public static final int SLICES = " + slices + ";", 1);
+		writeLine();
+		writeLine("/** Counts the slices of the cluster. Each slice loads one file of a COPY in parallel. */", 1);
+		writeLine("public static final String SLICES_SQL = \"SELECT COUNT(*) FROM stv_slices\";", 1);
 		writeLine();
 		writeLine("/** Creates the SQL for the specific " + tableName.toUpperCase() + " tables. The update uses a shadow table. */", 1);
 		writeLine("public static String createCopySQL(final String entity)", 1);
 		writeLine("{", 1);
+		writeLine("return createCopySQL(entity, false);", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Creates the SQL for the specific " + tableName.toUpperCase() + " tables. The update uses a shadow table.", 1);
+		writeLine(" *  With a manifest, the source is a manifest file that lists the gzip slices of a batch written by", 1);
+		writeLine(" *  <I>writeSlices</I>, whose tabs, line breaks, and backslashes are escaped with a backslash.", 1);
+		writeLine(" */", 1);
+		writeLine("public static String createCopySQL(final String entity, final boolean manifest)", 1);
+		writeLine("{", 1);
 		write("return new StringBuilder(\"COPY \").append(entity).append(\" (" + columnInfo[0].columnName, 2);
 		for (int i = 1; i < columnInfo.length; i++)
 		{
@@ -166,7 +224,7 @@ public class RedshiftBatch extends EntityBeanBase
 		writeLine("\"credentials 'aws_access_key_id=%s;aws_secret_access_key=%s' \" +", 3);
 		writeLine("\"emptyasnull ACCEPTINVCHARS AS ' ' TRUNCATECOLUMNS \" +", 3);
 		writeLine("\"gzip \" +", 3);
-		writeLine("\"delimiter '\\t'\").toString();", 3);
+		writeLine("\"delimiter '\\t'\").append(manifest ? \" escape manifest\" : \"\").toString();", 3);
 		writeLine("}", 1);
 		writeLine();
 		writeLine("/** COPY into INSERT table statement. */", 1);
@@ -175,6 +233,12 @@ public class RedshiftBatch extends EntityBeanBase
 		writeLine("/** COPY into UPDATE table statement. */", 1);
 		writeLine("public static final String UPDATES = createCopySQL(\"" + tableName + "_u\");", 1);
 		writeLine();
+		writeLine("/** COPY into INSERT table statement from a manifest of slices. */", 1);
+		writeLine("public static final String INSERTS_MANIFEST = createCopySQL(\"" + tableName + "\", true);", 1);
+		writeLine();
+		writeLine("/** COPY into UPDATE table statement from a manifest of slices. */", 1);
+		writeLine("public static final String UPDATES_MANIFEST = createCopySQL(\"" + tableName + "_u\", true);", 1);
+		writeLine();
 		writeLine("/** Merge the UPDATE table with target table. */", 1);
 		write("public static final String MERGE = \"UPDATE " + tableName + " SET " + columnInfo[1].columnName + " = u." + columnInfo[1].columnName, 1);
 		for (int i = 2; i < columnInfo.length; i++)
@@ -194,11 +258,23 @@ public class RedshiftBatch extends EntityBeanBase
 		writeLine("/** S3 resource name for the INSERT file. */", 1);
 		writeLine("public static final String S3_UPDATE_FILE = \"" + tableName + "_update.tsv\";", 1);
 		writeLine();
+		writeLine("/** S3 resource name for the INSERT manifest. */", 1);
+		writeLine("public static final String S3_INSERT_MANIFEST = \"" + tableName + "_insert.manifest\";", 1);
+		writeLine();
+		writeLine("/** S3 resource name for the UPDATE manifest. */", 1);
+		writeLine("public static final String S3_UPDATE_MANIFEST = \"" + tableName + "_update.manifest\";", 1);
+		writeLine();
 		writeLine("/** SQS entity name. It is the basis for the INSERT and UPDATE queues. */", 1);
 		writeLine("public static final String SQS_ENTITY_NAME = \"" + tableName + "\";", 1);
 		writeLine();
 		writeLine("/** Name of the database table associated with this batcher. */", 1);
 		writeLine("public static final String TABLE_NAME = \"" + tableName + "\";", 1);
+
+		writeBatchSizeFields();
+		writeLine();
+		writeLine("private int slices = SLICES;", 1);
+		writeLine("private long sequence = 0L;	// Keeps the S3 resources of the batches in flight apart.", 1);
+		writeLine("private CompletableFuture<Void> copying = CompletableFuture.completedFuture(null);	// COPY of the previous batch.", 1);
 	}
 
 	/** Output method - writes the <CODE>constructors</CODE>. */
@@ -223,9 +299,8 @@ public class RedshiftBatch extends EntityBeanBase
 		writeLine();
 		writeLine("@Override", 1);
 		writeLine("public String getName() { return NAME; }", 1);
-		writeLine();
-		writeLine("@Override", 1);
-		writeLine("public int getBatchSize() { return BATCH_SIZE; }", 1);
+
+		writeBatchSizeMethods();
 		writeLine();
 		writeLine("@Override", 1);
 		writeLine("public String getInsertsSQL() { return INSERTS; }", 1);
@@ -233,6 +308,15 @@ public class RedshiftBatch extends EntityBeanBase
 		writeLine("@Override", 1);
 		writeLine("public String getUpdatesSQL() { return UPDATES; }", 1);
 		writeLine();
+		writeLine("/** Accessor method - gets the number of slices each batch is split into. Zero until the first load counts the slices of the cluster. */", 1);
+		writeLine("public int getSlices() { return slices; }", 1);
+		writeLine();
+		writeLine("public String getSlicesSQL() { return SLICES_SQL; }", 1);
+		writeLine();
+		writeLine("public String getInsertsManifestSQL() { return INSERTS_MANIFEST; }", 1);
+		writeLine();
+		writeLine("public String getUpdatesManifestSQL() { return UPDATES_MANIFEST; }", 1);
+		writeLine();
 		writeLine("@Override", 1);
 		writeLine("public String getMergeSQL() { return MERGE; }", 1);
 		writeLine();
@@ -245,6 +329,10 @@ public class RedshiftBatch extends EntityBeanBase
 		writeLine("@Override", 1);
 		writeLine("public String getUpdateFile() { return S3_UPDATE_FILE; }", 1);
 		writeLine();
+		writeLine("public String getInsertManifest() { return S3_INSERT_MANIFEST; }", 1);
+		writeLine();
+		writeLine("public String getUpdateManifest() { return S3_UPDATE_MANIFEST; }", 1);
+		writeLine();
 		writeLine("@Override", 1);
 		writeLine("public String getEntityName() { return SQS_ENTITY_NAME; }", 1);
 		writeLine();
@@ -265,6 +353,164 @@ public class RedshiftBatch extends EntityBeanBase
 			writeLine(".add(value." + i.memberVariableName + ")", 3);
 		writeLine(".add();	// Line terminator", 3);
 		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Gets the S3 resource name of a single gzip slice. Slices share the prefix of the batch file. */", 1);
+		writeLine("public static String sliceFile(final String file, final int slice)", 1);
+		writeLine("{", 1);
+		writeLine("return file + \".\" + slice + \".gz\";", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Creates the manifest of a batch's slices. Each entry is mandatory so that a missing slice fails the COPY. */", 1);
+		writeLine("public static String createManifest(final String bucket, final List<String> files)", 1);
+		writeLine("{", 1);
+		writeLine("var o = new StringBuilder(64 + (files.size() * (bucket.length() + 64))).append(\"{\\\"entries\\\":[\");", 2);
+		writeLine("for (int i = 0; i < files.size(); i++)", 2);
+		writeLine("{", 2);
+		writeLine("if (0 < i) o.append(',');", 3);
+		writeLine("o.append(\"{\\\"url\\\":\\\"s3://\").append(bucket).append('/').append(files.get(i)).append(\"\\\",\\\"mandatory\\\":true}\");", 3);
+		writeLine("}", 2);
+		writeLine();
+		writeLine("return o.append(\"]}\").toString();", 2);
+		writeLine("}", 1);
+
+		writeSliceMethods();
+	}
+
+	/** Output method - writes the methods that split a batch into gzip slices and load them with a pipelined manifest COPY. */
+	private void writeSliceMethods() throws IOException
+	{
+		final String valueName = valueObjectName(getObjectName());
+
+		writeLine();
+		writeLine("/** Stores a resource in S3. Supplied by the application, e.g. with its S3 client, or by a test with a map. */", 1);
+		writeLine("@FunctionalInterface", 1);
+		writeLine("public interface Storage", 1);
+		writeLine("{", 1);
+		writeLine("public void put(final String key, final byte[] content) throws IOException;", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Counts the slices of the cluster, unless SLICES is set. */", 1);
+		writeLine("public static int countSlices(final Connection connection) throws SQLException", 1);
+		writeLine("{", 1);
+		writeLine("if (0 < SLICES) return SLICES;", 2);
+		writeLine();
+		writeLine("try (var stmt = connection.createStatement(); var rs = stmt.executeQuery(SLICES_SQL))", 2);
+		writeLine("{", 2);
+		writeLine("return rs.next() ? Math.max(rs.getInt(1), 1) : 1;", 3);
+		writeLine("}", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Loads a batch with a manifest COPY. The slices are written and stored at once, and the COPY runs once the", 1);
+		writeLine(" *  COPY of the previous batch completes. So the caller can accumulate the next batch while this one loads.", 1);
+		writeLine(" *  Sizes the next batch from the bytes written and the COPY latency.", 1);
+		writeLine(" *", 1);
+		writeLine(" * @param values the batch.", 1);
+		writeLine(" * @param updates <CODE>true</CODE> to load into the UPDATE table.", 1);
+		writeLine(" * @param connection Redshift connection. Used by one COPY at a time.", 1);
+		writeLine(" * @param bucket S3 bucket of the slices and the manifest.", 1);
+		writeLine(" * @param accessKey AWS access key of the COPY.", 1);
+		writeLine(" * @param secretKey AWS secret key of the COPY.", 1);
+		writeLine(" * @param storage stores the slices and the manifest in the bucket.", 1);
+		writeLine(" * @param executor writes the slices and runs the COPY.", 1);
+		writeLine(" * @return completes with the COPY of the batch. Join before the MERGE of the updates. Fails if an earlier batch failed.", 1);
+		writeLine(" */", 1);
+		writeLine("public synchronized CompletableFuture<Void> load(final List<" + valueName + "> values, final boolean updates, final Connection connection,", 1);
+		writeLine("final String bucket, final String accessKey, final String secretKey, final Storage storage, final ExecutorService executor)", 2);
+		writeLine("throws SQLException", 2);
+		writeLine("{", 1);
+		writeLine("if (0 == slices)", 2);
+		writeLine("slices = countSlices(connection);", 3);
+		writeLine();
+		writeLine("var id = ++sequence;", 2);
+		writeLine("var file = (updates ? S3_UPDATE_FILE : S3_INSERT_FILE) + \".\" + id;", 2);
+		writeLine("var manifest = (updates ? S3_UPDATE_MANIFEST : S3_INSERT_MANIFEST) + \".\" + id;", 2);
+		writeLine("var sql = String.format(updates ? UPDATES_MANIFEST : INSERTS_MANIFEST, \"s3://\" + bucket + \"/\" + manifest, accessKey, secretKey);", 2);
+		writeLine("var rows = values.size();", 2);
+		writeLine();
+		writeLine("return copying = writeSlices(values, file, manifest, bucket, slices, storage, executor).thenCombineAsync(copying, (bytes, previous) -> {", 2);
+		writeLine("var start = System.currentTimeMillis();", 3);
+		writeLine("try (var stmt = connection.createStatement()) { stmt.execute(sql); }", 3);
+		writeLine("catch (final SQLException ex) { throw new CompletionException(ex); }", 3);
+		writeLine();
+		writeLine("onBatchLoaded(rows, bytes, System.currentTimeMillis() - start);", 3);
+		writeLine("return null;", 3);
+		writeLine("}, executor);", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Writes a batch as gzip'd slices of contiguous values, and stores each slice concurrently and then the manifest.", 1);
+		writeLine(" *", 1);
+		writeLine(" * @return completes with the number of bytes written before compression.", 1);
+		writeLine(" */", 1);
+		writeLine("public static CompletableFuture<Long> writeSlices(final List<" + valueName + "> values, final String file, final String manifest,", 1);
+		writeLine("final String bucket, final int slices, final Storage storage, final ExecutorService executor)", 2);
+		writeLine("{", 1);
+		writeLine("var size = Math.max(1, Math.min(slices, values.size()));", 2);
+		writeLine("var files = new ArrayList<String>(size);", 2);
+		writeLine("var futures = new ArrayList<CompletableFuture<Long>>(size);", 2);
+		writeLine("for (int i = 0; i < size; i++)", 2);
+		writeLine("{", 2);
+		writeLine("var key = sliceFile(file, i);", 3);
+		writeLine("var slice = values.subList((int) (((long) values.size() * i) / size), (int) (((long) values.size() * (i + 1)) / size));", 3);
+		writeLine("files.add(key);", 3);
+		writeLine("futures.add(CompletableFuture.supplyAsync(() -> writeSlice(slice, key, storage), executor));", 3);
+		writeLine("}", 2);
+		writeLine();
+		writeLine("return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApplyAsync(v -> {", 2);
+		writeLine("put(storage, manifest, createManifest(bucket, files).getBytes(StandardCharsets.UTF_8));", 3);
+		writeLine("return futures.stream().mapToLong(CompletableFuture::join).sum();", 3);
+		writeLine("}, executor);", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Writes and stores a single gzip'd slice.", 1);
+		writeLine(" *", 1);
+		writeLine(" * @return the number of bytes written before compression.", 1);
+		writeLine(" */", 1);
+		writeLine("private static long writeSlice(final List<" + valueName + "> values, final String key, final Storage storage)", 1);
+		writeLine("{", 1);
+		writeLine("var o = new StringBuilder(values.size() * 128);", 2);
+		writeLine("values.forEach(v -> writeSliceLine(v, o));", 2);
+		writeLine();
+		writeLine("var data = o.toString().getBytes(StandardCharsets.UTF_8);", 2);
+		writeLine("var out = new ByteArrayOutputStream((data.length / 4) + 64);", 2);
+		writeLine("try (var gz = new GZIPOutputStream(out, 1 << 16)) { gz.write(data); }", 2);
+		writeLine("catch (final IOException ex) { throw new UncheckedIOException(ex); }", 2);
+		writeLine();
+		writeLine("put(storage, key, out.toByteArray());", 2);
+		writeLine("return data.length;", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Writes a single line of a slice. Tab delimited with NULL as an empty field. */", 1);
+		writeLine("public static void writeSliceLine(final " + valueName + " value, final StringBuilder out)", 1);
+		writeLine("{", 1);
+		for (int i = 0; i < columnInfo.length; i++)
+		{
+			if (0 < i)
+				writeLine("out.append('\\t');", 2);
+			writeLine("append(value." + columnInfo[i].memberVariableName + ", out);", 2);
+		}
+		writeLine("out.append('\\n');", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Appends a value with its tabs, line breaks, and backslashes escaped with a backslash for the ESCAPE option. */", 1);
+		writeLine("private static void append(final Object value, final StringBuilder out)", 1);
+		writeLine("{", 1);
+		writeLine("if (null == value) return;", 2);
+		writeLine();
+		writeLine("var text = (java.util.Date.class == value.getClass()) ? new Timestamp(((java.util.Date) value).getTime()).toString() : value.toString();", 2);
+		writeLine("for (int i = 0; i < text.length(); i++)", 2);
+		writeLine("{", 2);
+		writeLine("var c = text.charAt(i);", 3);
+		writeLine("if (('\\t' == c) || ('\\n' == c) || ('\\r' == c) || ('\\\\' == c)) out.append('\\\\');", 3);
+		writeLine("out.append(c);", 3);
+		writeLine("}", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("/** Stores a resource. */", 1);
+		writeLine("private static void put(final Storage storage, final String key, final byte[] content)", 1);
+		writeLine("{", 1);
+		writeLine("try { storage.put(key, content); }", 2);
+		writeLine("catch (final IOException ex) { throw new UncheckedIOException(ex); }", 2);
+		writeLine("}", 1);
 	}
 
 	/** Output method - writes the class footer. */
@@ -288,6 +534,8 @@ public class RedshiftBatch extends EntityBeanBase
 		@param args7 package name of the entity bean CMP classes.
 		@param args8 application version number
 		@param args9 table name filter
+		@param args10 number of gzip slices per batch. Zero uses the slice count of the cluster.
+		@param args11 batch size ranges, e.g. "1000:100000,wide_table=200:5000".
 	*/
 	public static void main(final String... args)
 	{
@@ -302,12 +550,15 @@ public class RedshiftBatch extends EntityBeanBase
 			final String author = extractAuthor(args, 5);
 			final String packageName = extractArgument(args, 6, null);
 			final String version = extractArgument(args, 7, VERSION_DEFAULT);
+			final int slices = Integer.parseInt(extractArgument(args, 9, SLICES_DEFAULT + ""));
+			final RedshiftBatch generator = new RedshiftBatch(author, packageName, version, slices);
+			generator.setBatchSizes(extractArgument(args, 10, null));
 
 			// Create and load the tables object.
 			final List<Table> tables = extractTables(args, 1, 8);
 
 			// Call the BaseTable method to handle the outputting.
-			generateTableResources(new RedshiftBatch(author, packageName, version), tables, dir);
+			generateTableResources(generator, tables, dir);
 		}
 
 		catch (final IllegalArgumentException ex)
@@ -329,6 +580,8 @@ public class RedshiftBatch extends EntityBeanBase
 			System.out.println("\t[Package Name]");
 			System.out.println("\t[Version]");
 			System.out.println("\t[Schema Name Pattern]");
+			System.out.println("\t[Slices per Batch (0 = cluster slice count)]");
+			System.out.println("\t[Batch Size Ranges (min:max,table=min:max,...)]");
 		}
 
 		catch (final Exception ex) { ex.printStackTrace(); }
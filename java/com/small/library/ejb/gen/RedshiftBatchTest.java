@@ -101,6 +101,7 @@ public class RedshiftBatchTest extends EntityBeanBase
 
 		String name = getObjectName();
 		writeLine("import java.util.*;");
+		writeLine("import java.util.concurrent.*;");
 		writeLine();
 		writeLine("import org.jdbi.v3.core.Jdbi;");
 		writeLine("import org.junit.jupiter.api.*;");
@@ -166,6 +167,10 @@ public class RedshiftBatchTest extends EntityBeanBase
 		writeLine("Assertions.assertFalse(batch.isUseParallelQueue(), \"Check useParallelQueue\");", 2);
 		writeLine("Assertions.assertNull(batch.nextInsertQueueUrls, \"Check nextInsertQueueUrls\");", 2);
 		writeLine("Assertions.assertNull(batch.nextUpdateQueueUrls, \"Check nextUpdateQueueUrls\");", 2);
+		writeLine("Assertions.assertEquals(" + batchName + ".BATCH_SIZE, batch.getBatchSize(), \"Check batchSize\");", 2);
+		writeLine("Assertions.assertEquals(" + batchName + ".SLICES, batch.getSlices(), \"Check slices\");", 2);
+		writeLine("Assertions.assertTrue(batch.getInsertsManifestSQL().endsWith(\" manifest\"), \"Check insertsManifestSQL\");", 2);
+		writeLine("Assertions.assertTrue(batch.getUpdatesManifestSQL().endsWith(\" manifest\"), \"Check updatesManifestSQL\");", 2);
 		writeLine();
 		writeLine("/* TODO: placeholder for the INSERT object.", 2);
 		write("INSERT = new " + valueName + "(ID", 2);
@@ -216,6 +221,27 @@ public class RedshiftBatchTest extends EntityBeanBase
 		writeLine("}", 1);
 		writeLine();
 		writeLine("@Test", 1);
+		writeLine("public void manifest()", 1);
+		writeLine("{", 1);
+		writeLine("var files = List.of(" + RedshiftBatch.getClassName(name) + ".sliceFile(\"" + getTable().name + "_insert.tsv\", 0), " + RedshiftBatch.getClassName(name) + ".sliceFile(\"" + getTable().name + "_insert.tsv\", 1));", 2);
+		writeLine();
+		writeLine("Assertions.assertEquals(\"{\\\"entries\\\":[\" +", 2);
+		writeLine("\"{\\\"url\\\":\\\"s3://bucket/" + getTable().name + "_insert.tsv.0.gz\\\",\\\"mandatory\\\":true},\" +", 3);
+		writeLine("\"{\\\"url\\\":\\\"s3://bucket/" + getTable().name + "_insert.tsv.1.gz\\\",\\\"mandatory\\\":true}]}\",", 3);
+		writeLine(RedshiftBatch.getClassName(name) + ".createManifest(\"bucket\", files), \"Check manifest\");", 3);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("@Test", 1);
+		writeLine("public void slices() throws Exception", 1);
+		writeLine("{", 1);
+		writeLine("var storage = new ConcurrentHashMap<String, byte[]>();	// Local stand-in for S3.", 2);
+		writeLine("var bytes = " + RedshiftBatch.getClassName(name) + ".writeSlices(List.of(), \"" + getTable().name + "_insert.tsv\", \"" + getTable().name + "_insert.manifest\", \"bucket\", 4, storage::put, ForkJoinPool.commonPool()).get();", 2);
+		writeLine();
+		writeLine("Assertions.assertEquals(0L, bytes, \"Check bytes\");", 2);
+		writeLine("Assertions.assertEquals(Set.of(\"" + getTable().name + "_insert.tsv.0.gz\", \"" + getTable().name + "_insert.manifest\"), storage.keySet(), \"Check resources\");", 2);
+		writeLine("}", 1);
+		writeLine();
+		writeLine("@Test", 1);
 		writeLine("public void process()", 1);
 		writeLine("{", 1);
 		writeLine("batch.run();", 2);
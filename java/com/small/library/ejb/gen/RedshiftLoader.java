@@ -16,7 +16,7 @@ import com.small.library.metadata.*;
 *
 ***************************************************************************************/
 
-public class RedshiftLoader extends EntityBeanBase
+public class RedshiftLoader extends RedshiftBase
 {
 	public static final Set<String> PRIMITIVES = new HashSet<>(Arrays.asList("Boolean", "Integer", "Long"));
 
@@ -39,7 +39,7 @@ public class RedshiftLoader extends EntityBeanBase
 	public RedshiftLoader(PrintWriter writer,
 		String author, Table table)
 	{
-		super(writer, author, table);
+		this(writer, author, table, null);
 	}
 
 	/** Constructor - constructs a populated object.
@@ -51,7 +51,7 @@ public class RedshiftLoader extends EntityBeanBase
 	public RedshiftLoader(PrintWriter writer,
 		String author, Table table, String packageName)
 	{
-		super(writer, author, table, packageName);
+		this(writer, author, table, packageName, null);
 	}
 
 	public RedshiftLoader(final String author, final String packageName, final String version)
@@ -154,8 +154,8 @@ public class RedshiftLoader extends EntityBeanBase
 		writeLine("public static final String NAME = \"" + name + "\";", 1);
 		writeLine("private static final String TABLE_NAME = \"" + tableName + "\";", 1);
 		writeLine();
-		writeLine("/** Size of bundle to load into S3 & subsequently Redshift. */", 1);
-		writeLine("public static final int BATCH_SIZE = 10000;", 1);
+		writeLine("/** Size of bundle to load into S3 & subsequently Redshift. Fixed since the base class runs the COPY. */", 1);
+		writeLine("public static final int BATCH_SIZE = " + getBatchSizes(getTable()).clamp(BATCH_SIZE_DEFAULT) + ";", 1);
 		writeLine();
 		writeLine("/** Creates the SELECT SQL for the specific " + tableName.toUpperCase() + " table. */", 1);
 		write("public static final String SELECT = \"SELECT o." + columnInfo[0].columnName, 1);
@@ -282,6 +282,8 @@ public class RedshiftLoader extends EntityBeanBase
 		@param args7 package name of the entity bean CMP classes.
 		@param args8 application version number
 		@param args9 table name filter
+		@param args10 batch size ranges, e.g. "1000:100000,wide_table=200:5000". The loaders use a fixed batch size
+			within the range since their COPY is run by the base class and cannot be timed.
 	*/
 	public static void main(final String... args)
 	{
@@ -296,12 +298,14 @@ public class RedshiftLoader extends EntityBeanBase
 			var author = extractAuthor(args, 5);
 			var packageName = extractArgument(args, 6, null);
 			var version = extractArgument(args, 7, VERSION_DEFAULT);
+			var generator = new RedshiftLoader(author, packageName, version);
+			generator.setBatchSizes(extractArgument(args, 9, null));
 
 			// Create and load the tables object.
 			var tables = extractTables(args, 1, 8);
 
 			// Call the BaseTable method to handle the outputting.
-			generateTableResources(new RedshiftLoader(author, packageName, version), tables, dir);
+			generateTableResources(generator, tables, dir);
 		}
 
 		catch (final IllegalArgumentException ex)
@@ -323,6 +327,7 @@ public class RedshiftLoader extends EntityBeanBase
 			System.out.println("\t[Package Name]");
 			System.out.println("\t[Version]");
 			System.out.println("\t[Schema Name Pattern]");
+			System.out.println("\t[Batch Size Ranges (min:max,table=min:max,...)]");
 		}
 
 		catch (final Exception ex) { ex.printStackTrace(); }
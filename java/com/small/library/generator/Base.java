@@ -38,6 +38,7 @@ public abstract class Base
 	public static final String JDBC_TYPE_SMALLINT = "SMALLINT";
 
 	public static final String AUTHOR_DEFAULT = System.getProperty("user.name");
+	public static final int POOL_SIZE_DEFAULT = 8;	// Same as the BasicDataSource default.
 	public static final String PREFIX_INTEGER = "n";
 	public static final String PREFIX_SMALLINT = PREFIX_INTEGER;
 	public static final String PREFIX_LONG = "l";
@@ -338,6 +339,20 @@ public abstract class Base
 	*/
 	public static DataSource extractDataSource(String[] args,
 		int firstArgument) throws IllegalArgumentException
+	{
+		return extractDataSource(args, firstArgument, POOL_SIZE_DEFAULT);
+	}
+
+	/** Helper method - gets a pooled Data Source object based on the command line
+	    arguments.
+		@param args An array of command line arguments.
+		@param firstArgument Index in the array that indicates the first
+			data source argument. The argument order should be
+			URL, User ID, Password, & Driver.
+		@param poolSize Maximum number of open connections in the pool.
+	*/
+	public static DataSource extractDataSource(String[] args,
+		int firstArgument, int poolSize) throws IllegalArgumentException
 	{
 		if (args.length < firstArgument + 2)
 			throw new IllegalArgumentException("Missing JDBC_URL or User_ID argument.");
@@ -353,17 +368,29 @@ public abstract class Base
 			url = "jdbc:odbc:" + url;
 
 		// Create the data source.
-		return createDataSource(strDriver, url, strUserName, strPassword);
+		return createDataSource(strDriver, url, strUserName, strPassword, poolSize);
 	}
 
 	/** Helper method - creates JDBC DataSource object. */
 	public static DataSource createDataSource(final String driver, final String url, final String userName, final String password)
+	{
+		return createDataSource(driver, url, userName, password, POOL_SIZE_DEFAULT);
+	}
+
+	/** Helper method - creates JDBC DataSource object.
+		@param poolSize Maximum number of open (and idle) connections in the pool.
+			Parallel generators should supply at least one connection per worker.
+	*/
+	public static DataSource createDataSource(final String driver, final String url, final String userName, final String password,
+		final int poolSize)
 	{
 		final BasicDataSource value = new BasicDataSource();
 		value.setDriverClassName(driver);
 		value.setUrl(url);
 		value.setUsername(userName);
 		value.setPassword(password);
+		value.setMaxTotal(poolSize);
+		value.setMaxIdle(poolSize);
 
 		return value;
 	}
@@ -2,7 +2,11 @@ package com.small.library.generator;
 
 import java.io.*;
 import java.sql.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.StringUtils;
@@ -26,6 +30,30 @@ public abstract class BaseTable extends BaseJDBC
 	public static final String PREFIX_MUTATOR_METHOD = "set";
 	public static final String PREFIX_WITH_METHOD = "with";
 
+	/** System property - directory of the persisted metadata snapshots. When set, the generators persist a snapshot
+	    of the database metadata and rewrite it when the database changes. See the maximum age and offline properties
+	    to read the table metadata from the cached snapshot instead of introspecting the database on each run.
+	*/
+	public static final String PROPERTY_METADATA_CACHE = "small.library.metadata.cache";
+
+	/** System property - set to "true" to use the cached metadata snapshot without checking the database for changes.
+	    Lets the generators run without a database.
+	*/
+	public static final String PROPERTY_METADATA_OFFLINE = "small.library.metadata.offline";
+
+	/** System property - number of seconds that the cached metadata snapshot is used without checking the database
+	    for changes. Defaults to zero, which checks on each run.
+	*/
+	public static final String PROPERTY_METADATA_MAX_AGE = "small.library.metadata.maxAge";
+
+	/** System property - set to "true", along with the metadata cache, to generate only the tables that were added or
+	    changed since the generator last ran. Each generator keeps its own baseline snapshot in the cache directory,
+	    which is replaced with the current snapshot only after its resources are generated successfully.
+	*/
+	public static final String PROPERTY_METADATA_CHANGED = "small.library.metadata.changed";
+
+	private static volatile Changes changes = null;	// Set by extractTables when only the changed tables are generated.
+
 	private Table table = null;
 	private String objectName = null;
 	private List<Column> columns = null;
@@ -318,21 +346,182 @@ public abstract class BaseTable extends BaseJDBC
 		List<Table> tables, File directory)
 			throws GeneratorException, IOException
 	{
+		final Changes pending = changes;
+		final File baseline = (null != pending) ? pending.getFile(generator) : null;
+
 		// Loop through the tables and generate.
-		for (final Table table : tables)
+		for (final Table table : (null != baseline) ? pending.getChangedTables(baseline, tables) : tables)
 		{
 			// Set the table immediately so that the generator can
 			// use the table object to generate the name.
 			generator.setTable(table);
 
 			File fileOutput = new File(directory, generator.getOutputFileName(table));
-			PrintWriter writer = new PrintWriter(new FileWriter(fileOutput));
+			PrintWriter writer = generator.createWriter(fileOutput);
 
 			generator.setWriter(writer);
 			generator.generate();
 
 			writer.close();
 		}
+
+		if (null != baseline)
+			pending.write(baseline);
+	}
+
+	/** Helper method - generates resources for a collection of table record objects in parallel.
+	    Each table is generated by its own generator instance, supplied by the factory, into the
+	    file named by <I>getOutputFileName</I>. So the output layout is the same regardless of the
+	    order in which the tables complete. Used by class entry methods (i.e. main).
+		@param factory creates a new <I>BaseTable</I> generator for each table. Generators that
+			query the database should share a pooled <I>DataSource</I> with at least
+			<CODE>threads</CODE> connections.
+		@param tables Collection of table record objects used to generate
+			the resources.
+		@param directory Directory to output the generated resources.
+		@param threads Maximum number of tables generated at once.
+	*/
+	public static void generateTableResources(final Supplier<? extends BaseTable> factory,
+		final List<Table> tables, final File directory, final int threads)
+			throws GeneratorException, IOException
+	{
+		generateTableResources(factory, tables, directory, threads, OutputSink.getDefault());
+	}
+
+	/** Helper method - generates resources for only the tables that were added or changed. The resources of
+	    removed tables are listed but not deleted.
+		@param factory creates a new <I>BaseTable</I> generator for each table.
+		@param tables Collection of table record objects of the current schema.
+		@param directory Directory to output the generated resources.
+		@param threads Maximum number of tables generated at once.
+		@param changes Differences between the schema that the existing resources were generated from and the current schema.
+	*/
+	public static void generateTableResources(final Supplier<? extends BaseTable> factory,
+		final List<Table> tables, final File directory, final int threads, final SchemaDiff changes)
+			throws GeneratorException, IOException
+	{
+		for (final Table table : changes.removedTables)
+		{
+			final BaseTable generator = factory.get();
+			generator.setTable(table);
+			System.out.println("Removed table - " + table.name + ". The resource " + generator.getOutputFileName(table) + " is obsolete.");
+		}
+
+		generateTableResources(factory, changes.getAffectedTables(tables), directory, threads);
+	}
+
+	/** Helper method - generates resources for a collection of table record objects in parallel
+	    into the supplied output sink.
+		@param factory creates a new <I>BaseTable</I> generator for each table.
+		@param values Collection of table record objects used to generate
+			the resources.
+		@param directory Directory to output the generated resources.
+		@param threads Maximum number of tables generated at once.
+		@param sink Describes how the output files are written, e.g. gzip'd or split into parts.
+	*/
+	public static void generateTableResources(final Supplier<? extends BaseTable> factory,
+		final List<Table> values, final File directory, final int threads, final OutputSink sink)
+			throws GeneratorException, IOException
+	{
+		final Changes pending = changes;
+		final File baseline = (null != pending) ? pending.getFile(factory.get()) : null;
+		final List<Table> tables = (null != baseline) ? pending.getChangedTables(baseline, values) : values;
+
+		final int size = tables.size();
+		final AtomicInteger completed = new AtomicInteger();
+		final long start = System.currentTimeMillis();
+		final ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, size)));
+
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(size);
+			for (final Table table : tables)
+			{
+				futures.add(executor.submit(() -> {
+					final long time = System.currentTimeMillis();
+					final BaseTable generator = factory.get();
+					generator.setTable(table);
+
+					final File fileOutput = new File(directory, generator.getOutputFileName(table));
+					try (final PrintWriter writer = generator.createWriter(fileOutput, sink))
+					{
+						generator.setWriter(writer);
+						generator.generate();
+					}
+
+					System.out.println("Finished table - " + table.name + " (" + completed.incrementAndGet() + " of " + size + ") in " +
+						(((float) (System.currentTimeMillis() - time)) / 1000f) + " seconds.");
+
+					return null;
+				}));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				try { future.get(); }
+				catch (final InterruptedException ex)
+				{
+					Thread.currentThread().interrupt();
+					throw new GeneratorException(ex);
+				}
+				catch (final ExecutionException ex)
+				{
+					final Throwable cause = ex.getCause();
+					if (cause instanceof GeneratorException) throw (GeneratorException) cause;
+					if (cause instanceof IOException) throw (IOException) cause;
+					if (cause instanceof Exception) throw new GeneratorException((Exception) cause);
+					throw new GeneratorException(ex);
+				}
+			}
+		}
+		finally { executor.shutdownNow(); }
+
+		System.out.println("Finished " + size + " tables with " + threads + " threads in " +
+			(((float) (System.currentTimeMillis() - start)) / 1000f) + " seconds.");
+
+		if (null != baseline)
+			pending.write(baseline);
+	}
+
+	/** Helper method - opens the output stream of a table resource into the default
+	    output sink.
+		@param output The output file.
+	*/
+	public PrintWriter createWriter(final File output) throws IOException
+	{
+		return createWriter(output, OutputSink.getDefault());
+	}
+
+	/** Helper method - opens the output stream of a table resource. Used by
+	    <I>generateTableResources</I>. Generators that resume previous output
+	    can override to append rather than overwrite.
+		@param output The output file.
+		@param sink Describes how the output file is written.
+	*/
+	public PrintWriter createWriter(final File output, final OutputSink sink) throws IOException
+	{
+		return sink.open(output);
+	}
+
+	/** Helper method - gets the default output file name of a table resource that is named after the
+	    table rather than a class. Includes the schema, if available, to keep the names unique.
+		@param table A table record object.
+		@param extension File extension including the period.
+	*/
+	public static String getTableFileName(final Table table, final String extension)
+	{
+		return ((null != table.schema) ? table.schema + "." : "") + table.name + extension;
+	}
+
+	/** Helper method - gets the milliseconds that the cached metadata snapshot is used without checking the database.
+	    Unlimited when offline.
+	*/
+	public static long getMetadataMaxAge()
+	{
+		if (Boolean.getBoolean(PROPERTY_METADATA_OFFLINE))
+			return Long.MAX_VALUE;
+
+		return Math.min(Math.max(Long.getLong(PROPERTY_METADATA_MAX_AGE, 0L), 0L), Long.MAX_VALUE / 1000L) * 1000L;
 	}
 
 	/** Helper method - gets a <I>Tables</I> object based on the command line
@@ -345,10 +534,27 @@ public abstract class BaseTable extends BaseJDBC
 	*/
 	protected static List<Table> extractTables(final String[] args,
 		final int firstArgument, final String tableNamePattern)
-			throws IllegalArgumentException, SQLException
+			throws IllegalArgumentException, SQLException, IOException
 	{
 		final DBMetadata metadata = new DBMetadata(extractDataSource(args, firstArgument));
 
+		final String cache = System.getProperty(PROPERTY_METADATA_CACHE);
+		final File file = (null != cache) ? new File(cache, SchemaSnapshot.fileName(args[firstArgument], null)) : null;
+
+		if (null != file)
+		{
+			final SchemaSnapshot snapshot = metadata.snapshot(null, file, getMetadataMaxAge());
+
+			// Each generator compares the current snapshot with its own baseline.
+			if (Boolean.getBoolean(PROPERTY_METADATA_CHANGED))
+				changes = new Changes(new File(cache), args[firstArgument], snapshot, StringUtils.isNotEmpty(tableNamePattern));
+		}
+
+		// Generating all the tables so load the metadata of the entire schema at once
+		// instead of making several round trips per table.
+		else if (StringUtils.isEmpty(tableNamePattern))
+			metadata.snapshot(null);
+
 		if (StringUtils.isEmpty(tableNamePattern))
 			return metadata.getTables();
 
@@ -367,7 +573,7 @@ public abstract class BaseTable extends BaseJDBC
 	protected static List<Table> extractTables(String[] args,
 		int firstArgument, int tableNamePatternArg)
 			throws IllegalArgumentException,
-				SQLException
+				SQLException, IOException
 	{
 		return extractTables(args, firstArgument,
 			extractArgument(args, tableNamePatternArg, null));
@@ -383,8 +589,59 @@ public abstract class BaseTable extends BaseJDBC
 	protected static List<Table> extractTables(String[] args,
 		int firstArgument)
 			throws IllegalArgumentException,
-				SQLException
+				SQLException, IOException
 	{
 		return extractTables(args, firstArgument, (String) null);
 	}
+
+	/** Value class that holds the current snapshot when only the changed tables are generated. */
+	private static class Changes
+	{
+		private final File directory;
+		private final String url;
+		private final SchemaSnapshot snapshot;
+		private final boolean partial;	// Only the tables of a name pattern are generated.
+
+		private Changes(final File directory, final String url, final SchemaSnapshot snapshot, final boolean partial)
+		{
+			this.directory = directory;
+			this.url = url;
+			this.snapshot = snapshot;
+			this.partial = partial;
+		}
+
+		/** Accessor method - gets the file of the snapshot that the generator last generated from. */
+		private File getFile(final BaseTable generator)
+		{
+			return new File(directory, SchemaSnapshot.fileName(url, null, generator.getClass().getName()));
+		}
+
+		/** Accessor method - gets the tables that were added or changed since the baseline snapshot.
+		    All the tables if the generator has no baseline yet.
+		*/
+		private List<Table> getChangedTables(final File baseline, final List<Table> tables) throws IOException
+		{
+			if (!baseline.isFile())
+			{
+				System.out.println("No baseline snapshot of the generator. Generating all the tables.");
+				return tables;
+			}
+
+			final SchemaDiff o = SchemaDiff.compare(SchemaSnapshot.read(baseline), snapshot);
+			System.out.print(o.isEmpty() ? "No schema changes since the baseline snapshot.\n" : "Schema changes since the baseline snapshot:\n" + o);
+
+			return o.getAffectedTables(tables);
+		}
+
+		/** Mutator method - replaces the baseline snapshot once the generator completes. Kept as is when only some of
+		    the tables were generated, so that the changes to the other tables are still pending.
+		*/
+		private void write(final File baseline) throws IOException
+		{
+			if (partial)
+				System.out.println("Generated the tables of a name pattern. The baseline snapshot was not replaced.");
+			else
+				snapshot.write(baseline);
+		}
+	}
 }
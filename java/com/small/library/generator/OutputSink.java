@@ -0,0 +1,299 @@
+package com.small.library.generator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.*;
+import java.util.zip.GZIPOutputStream;
+
+/***************************************************************************************
+*
+*	Describes how the output files of the table resource generators are written. The
+*	output can be gzip'd, with fixed size blocks compressed in parallel into separate
+*	gzip members that standard tools read as a single stream, and can be split into
+*	numbered part files once a part reaches a size. When split, blocks end on a line
+*	boundary, and parts on a block boundary, so each part holds whole rows that can be
+*	decompressed and loaded on its own, and the parts can be concatenated in order to
+*	restore the whole file. The output is always UTF-8.
+*
+*	The default sink is configured with the system properties
+*	"small.library.output.gzip", "small.library.output.threads",
+*	"small.library.output.buffer", and "small.library.output.part".
+*
+*	@author David Small
+*	@version 4.0
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public class OutputSink
+{
+	public static final String PROPERTY_GZIP = "small.library.output.gzip";
+	public static final String PROPERTY_THREADS = "small.library.output.threads";
+	public static final String PROPERTY_BUFFER = "small.library.output.buffer";
+	public static final String PROPERTY_PART = "small.library.output.part";
+
+	public static final int BUFFER_SIZE_DEFAULT = 1 << 16;	// Size of the character buffer in characters.
+	public static final int BLOCK_SIZE = 1 << 20;	// Size of each block before compression in bytes.
+	public static final String EXTENSION_GZIP = ".gz";
+
+	/** Uncompressed, unsplit output. */
+	public static final OutputSink PLAIN = new OutputSink(false, 1, BUFFER_SIZE_DEFAULT, 0L);
+
+	private static volatile OutputSink defaultSink = PLAIN;
+
+	public final boolean gzip;
+	public final int threads;
+	public final int bufferSize;
+	public final long partSize;
+
+	private volatile ExecutorService executor = null;	// Compresses the blocks of all the output files. Created on first use.
+
+	/** Constructor - constructs a populated object.
+		@param gzip Indicates whether the output is gzip'd.
+		@param threads Number of blocks compressed at once across all the output files.
+		@param bufferSize Size of the character buffer in characters.
+		@param partSize Size in bytes at which the output is split into another part file.
+			Zero does not split.
+	*/
+	public OutputSink(final boolean gzip, final int threads, final int bufferSize, final long partSize)
+	{
+		this.gzip = gzip;
+		this.threads = Math.max(threads, 1);
+		this.bufferSize = Math.max(bufferSize, 1);
+		this.partSize = Math.max(partSize, 0L);
+	}
+
+	/** Helper method - gets the sink configured by the system properties. Defaults to plain output. */
+	public static OutputSink getDefault()
+	{
+		final boolean gzip = Boolean.getBoolean(PROPERTY_GZIP);
+		final long partSize = Long.getLong(PROPERTY_PART, 0L);
+		if (!gzip && (0L == partSize) && (null == System.getProperty(PROPERTY_BUFFER)))
+			return PLAIN;
+
+		// Reuse the last default sink while the properties are the same so that its compression threads are shared.
+		final int threads = Math.max(Integer.getInteger(PROPERTY_THREADS, Runtime.getRuntime().availableProcessors()), 1);
+		final int bufferSize = Math.max(Integer.getInteger(PROPERTY_BUFFER, BUFFER_SIZE_DEFAULT), 1);
+		final OutputSink o = defaultSink;
+		if ((gzip == o.gzip) && (threads == o.threads) && (bufferSize == o.bufferSize) && (Math.max(partSize, 0L) == o.partSize))
+			return o;
+
+		return defaultSink = new OutputSink(gzip, threads, bufferSize, partSize);
+	}
+
+	/** Accessor method - indicates whether the output is written directly to the named file. */
+	public boolean isPlain() { return !gzip && (0L == partSize); }
+
+	/** Accessor method - gets the file that a part of the output is written to.
+		@param output The output file named by the generator.
+		@param part One-based part number. Ignored if the output is not split.
+	*/
+	public File getFile(final File output, final int part)
+	{
+		final String name = output.getName() + ((0L < partSize) ? String.format(".part%03d", part) : "") + (gzip ? EXTENSION_GZIP : "");
+
+		return new File(output.getParentFile(), name);
+	}
+
+	/** Helper method - opens the output stream of a generator.
+		@param output The output file named by the generator.
+	*/
+	public PrintWriter open(final File output) throws IOException
+	{
+		if (isPlain())
+			return new PrintWriter(new BufferedWriter(new OutputStreamWriter(new FileOutputStream(output), UTF_8), bufferSize));
+
+		return new PrintWriter(new BufferedWriter(new OutputStreamWriter(new BlockOutputStream(output), UTF_8), bufferSize));
+	}
+
+	/** Helper method - gets the pool that compresses the blocks of all the output files of the sink. Its threads
+	    are daemons that end when idle. <CODE>null</CODE> if the blocks are compressed by the writing thread.
+	*/
+	private ExecutorService getExecutor()
+	{
+		if (!gzip || (1 == threads))
+			return null;
+
+		var o = executor;
+		if (null == o)
+		{
+			synchronized (this)
+			{
+				if (null == (o = executor))
+				{
+					final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+						final Thread thread = new Thread(r, "output-sink");
+						thread.setDaemon(true);
+						return thread;
+					});
+					pool.allowCoreThreadTimeOut(true);
+					executor = o = pool;
+				}
+			}
+		}
+
+		return o;
+	}
+
+	/** Collects the output into blocks that are compressed, optionally in parallel, and written in
+	    order to the current part file.
+	*/
+	private class BlockOutputStream extends OutputStream
+	{
+		private final File output;
+		private final ExecutorService executor;
+		private final boolean lines;	// Blocks end on a line boundary so that the parts hold whole rows.
+		private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+		private byte[] block = new byte[BLOCK_SIZE];
+		private int count = 0;
+		private FileChannel channel;
+		private int part = 0;
+		private long partBytes = 0L;
+
+		private BlockOutputStream(final File output) throws IOException
+		{
+			this.output = output;
+			this.executor = getExecutor();
+			this.lines = (0L < partSize);
+			nextPart();
+		}
+
+		@Override
+		public void write(final int b) throws IOException
+		{
+			block[count++] = (byte) b;
+			if (block.length == count)
+				submit(false);
+		}
+
+		@Override
+		public void write(final byte[] b, int off, int len) throws IOException
+		{
+			while (0 < len)
+			{
+				final int size = Math.min(len, block.length - count);
+				System.arraycopy(b, off, block, count, size);
+				count+= size;
+				off+= size;
+				len-= size;
+
+				if (block.length == count)
+					submit(false);
+			}
+		}
+
+		@Override
+		public void close() throws IOException
+		{
+			try
+			{
+				if (0 < count)
+					submit(true);
+				while (!pending.isEmpty())
+					emit(take(pending.poll()));
+			}
+			finally
+			{
+				pending.forEach(f -> f.cancel(false));	// In case of a failure.
+				channel.close();
+			}
+		}
+
+		/** Helper method - hands off the current block. Limits the blocks in flight to twice the threads.
+			@param last Indicates that the block is the end of the output.
+		*/
+		private void submit(final boolean last) throws IOException
+		{
+			final byte[] data = block;
+			int end = count;
+			if (lines && !last)
+			{
+				while ((0 < end) && ('\n' != data[end - 1])) end--;
+				if (0 == end)	// A line longer than the block, so grow the block.
+				{
+					block = Arrays.copyOf(data, data.length * 2);
+					return;
+				}
+			}
+
+			// Carry the partial line over to the next block.
+			final int size = end;
+			final int remainder = count - size;
+			block = new byte[Math.max(BLOCK_SIZE, remainder * 2)];
+			System.arraycopy(data, size, block, 0, remainder);
+			count = remainder;
+
+			if (null == executor)
+			{
+				emit(compress(data, size));
+				return;
+			}
+
+			pending.add(executor.submit(() -> compress(data, size)));
+			while ((threads * 2) < pending.size())
+				emit(take(pending.poll()));
+		}
+
+		/** Helper method - writes a finished block, starting a new part first if the block would overflow the current one. */
+		private void emit(final byte[] bytes) throws IOException
+		{
+			if ((0L < partSize) && (0L < partBytes) && (partSize < (partBytes + bytes.length)))
+			{
+				channel.close();
+				nextPart();
+			}
+
+			final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+			partBytes+= bytes.length;
+		}
+
+		/** Helper method - opens the next part file. */
+		private void nextPart() throws IOException
+		{
+			channel = FileChannel.open(getFile(output, ++part).toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			partBytes = 0L;
+		}
+
+		/** Helper method - waits for a compressed block. */
+		private byte[] take(final Future<byte[]> future) throws IOException
+		{
+			try { return future.get(); }
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			catch (final ExecutionException ex)
+			{
+				final Throwable cause = ex.getCause();
+				if (cause instanceof IOException) throw (IOException) cause;
+				throw new IOException(cause);
+			}
+		}
+	}
+
+	/** Helper method - compresses a block into a complete gzip member. Returns the block as is if not gzip'd. */
+	private byte[] compress(final byte[] data, final int size) throws IOException
+	{
+		if (!gzip)
+			return (data.length == size) ? data : Arrays.copyOf(data, size);
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream((size / 4) + 64);
+		try (final GZIPOutputStream gz = new GZIPOutputStream(out, 1 << 13))
+		{
+			gz.write(data, 0, size);
+		}
+
+		return out.toByteArray();
+	}
+}
@@ -49,7 +49,7 @@ public abstract class Element
 	protected void write(int value) throws IOException { write(writer, value); }
 
 	/** Helper method - Writes integer information to the Output stream. */
-	protected static void write(Writer writer, int value) throws IOException { write(writer, "" + value); }
+	protected static void write(Writer writer, int value) throws IOException { HtmlWriter.write(writer, value); }
 
 	/** Helper method - Writes string information to the Output stream with a carridge return. */
 	protected void writeLine(String value) throws IOException { writeLine(writer, value); }
@@ -62,7 +62,7 @@ public abstract class Element
 	protected void writeLine(int value) throws IOException { writeLine(writer, value); }
 
 	/** Helper method - Writes integer information to the Output stream with a carridge return. */
-	protected static void writeLine(Writer writer, int value) throws IOException { writeLine(writer, "" + value); }
+	protected static void writeLine(Writer writer, int value) throws IOException { write(writer, value); writeNewLine(writer); }
 
 	/** Helper method - Places double quotes around a string value. */
 	protected void writeWithQuotes(String value) throws IOException
@@ -78,11 +78,11 @@ public abstract class Element
 
 	/** Helper method - Places double quotes around an integer value. */
 	protected static void writeWithQuotes(Writer writer, int value) throws IOException
-	{ writeWithQuotes(writer, "" + value); }
+	{ writer.write('"'); write(writer, value); writer.write('"'); }
 
 	/** Helper method - writes a line break in the HTML. */
 	protected void writeNewLine() throws IOException { writeNewLine(writer); }
 
 	/** Helper method - writes a line break in the HTML. */
-	protected static void writeNewLine(Writer writer) throws IOException { writer.write("\n"); }
+	protected static void writeNewLine(Writer writer) throws IOException { writer.write('\n'); }
 }
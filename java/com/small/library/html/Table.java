@@ -1,6 +1,7 @@
 package com.small.library.html;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
 
 /***************************************************************************************
@@ -36,6 +37,7 @@ public class Table extends TagElement
 	private final String borderColor;
 	private final String align;
 	private final TableRows rows;
+	private String openTag = null;	// Rendered once since the attributes are fixed.
 
 	/** Constructor - constructs an object populated with default values. */
 	public Table()
@@ -148,16 +150,23 @@ public class Table extends TagElement
 	public void open(Writer writer)
 		throws IOException
 	{
-		openTag(writer, TAG);
-
-		writeAttribute(writer, ATTRIBUTE_BORDER, border);
-		writeAttribute(writer, ATTRIBUTE_CELL_PADDING, cellPadding);
-		writeAttribute(writer, ATTRIBUTE_CELL_SPACING, cellSpacing);
-		writeAttribute(writer, ATTRIBUTE_WIDTH, width);
-		writeAttribute(writer, ATTRIBUTE_BORDER_COLOR, borderColor);
-		writeAttribute(writer, ATTRIBUTE_ALIGNMENT, align);
-
-		closeTag(writer);
+		if (null == openTag)
+		{
+			final StringWriter o = new StringWriter();
+			openTag(o, TAG);
+
+			writeAttribute(o, ATTRIBUTE_BORDER, border);
+			writeAttribute(o, ATTRIBUTE_CELL_PADDING, cellPadding);
+			writeAttribute(o, ATTRIBUTE_CELL_SPACING, cellSpacing);
+			writeAttribute(o, ATTRIBUTE_WIDTH, width);
+			writeAttribute(o, ATTRIBUTE_BORDER_COLOR, borderColor);
+			writeAttribute(o, ATTRIBUTE_ALIGNMENT, align);
+
+			closeTag(o);
+			openTag = o.toString();
+		}
+
+		write(writer, openTag);
 
 		writeNewLine(writer);
 	}
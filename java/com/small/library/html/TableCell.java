@@ -1,7 +1,10 @@
 package com.small.library.html;
 
 import java.io.IOException;
+import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /************************************************************************************
 *
@@ -43,6 +46,8 @@ public class TableCell extends TagElement
 	public final String backgroundImage;
 	public final Element child;
 
+	private static final Map<String, String> DEFAULT_OPEN_TAGS = new ConcurrentHashMap<>();	// Keyed by tag.
+
 	public String getTag() { return TAG; }	// Can be overridden. DLS on 9/19/2017.
 
 	public TableCell(String strChildElement)
@@ -133,6 +138,36 @@ public class TableCell extends TagElement
 		@param writer <I>Writer</I> object used to output HTML.
 	*/
 	public void open(Writer writer) throws IOException
+	{
+		if (!isDefault())
+		{
+			writeOpenTag(writer);
+			return;
+		}
+
+		String o = DEFAULT_OPEN_TAGS.get(getTag());
+		if (null == o)
+		{
+			final StringWriter rendered = new StringWriter();
+			writeOpenTag(rendered);
+			DEFAULT_OPEN_TAGS.put(getTag(), o = rendered.toString());
+		}
+
+		write(writer, o);
+	}
+
+	/** Helper method - indicates that the cell has only the default alignment attributes, so shares the rendered open tag. */
+	private boolean isDefault()
+	{
+		return !hasCoreAttributes() &&
+			ALIGN_LEFT.equals(hAlign) && VALIGN_TOP.equals(vAlign) &&
+			(null == width) && (null == height) &&
+			(ATTR_VALUE_NO_VALUE == colSpan) && (ATTR_VALUE_NO_VALUE == rowSpan) &&
+			(null == backgroundColor) && (null == backgroundImage);
+	}
+
+	/** Helper method - writes the open tag with its attributes. */
+	private void writeOpenTag(Writer writer) throws IOException
 	{
 		openTag(writer, getTag());
 
@@ -160,6 +195,6 @@ public class TableCell extends TagElement
 	*/
 	public void close(Writer writer) throws IOException
 	{
-		writeTagClosing(writer, TAG);
+		writeTagClosing(writer, getTag());
 	}
 }
@@ -1,15 +1,23 @@
 package com.small.library.html;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.ArrayList;
 
 /*********************************************************************************
 *
 *	Class that represents a collection of HTML table row elements, <I>TableRow</I>.
-*	This is a zero-based collection.
+*	This is a zero-based collection. The rows can also be supplied lazily by an
+*	<I>Iterator</I> or a <I>ResultSet</I>, in which case each row is created and
+*	discarded as it is written so that large results render in constant memory.
+*	A lazy source can only be written once.
 *
 *	@author i-Deal\David Small
 *	@version 2.0.0.0
@@ -20,14 +28,16 @@ import java.util.ArrayList;
 public class TableRows extends Element
 {
 	private final List<TableRow> rows;
+	private final Iterator<? extends TableRow> source;	// Rows written after the collection. Optional.
 
-	public TableRows() { super(null); rows = new ArrayList<>(); }
+	public TableRows() { super(null); rows = new ArrayList<>(); source = null; }
 
 	public TableRows(final TableRow... rows)
 	{
 		super(null);
 
 		this.rows = Arrays.asList(rows);
+		source = null;
 	}
 
 	public TableRows(final List<TableRow> rows)
@@ -35,6 +45,28 @@ public class TableRows extends Element
 		super(null);
 
 		this.rows = new ArrayList<>(rows);
+		source = null;
+	}
+
+	/** Constructor - constructs a collection whose rows are produced lazily.
+		@param source Produces the rows as they are written. Rows added to the
+			collection are written first.
+	*/
+	public TableRows(final Iterator<? extends TableRow> source)
+	{
+		super(null);
+
+		rows = new ArrayList<>();
+		this.source = source;
+	}
+
+	/** Constructor - constructs a collection whose rows are read lazily from a cursor.
+		@param rs The cursor. Advanced as the rows are written. Not closed.
+		@param mapper Creates a row from the current row of the cursor.
+	*/
+	public TableRows(final ResultSet rs, final RowMapper mapper)
+	{
+		this(new ResultSetRows(rs, mapper));
 	}
 
 	/** Action method - creates the HTML table row element and underlying
@@ -44,6 +76,15 @@ public class TableRows extends Element
 	public void create(final Writer writer) throws IOException
 	{
 		for (final TableRow r : rows) r.create(writer);
+
+		if (null == source) return;
+
+		try
+		{
+			while (source.hasNext())
+				source.next().create(writer);	// Not retained once written.
+		}
+		catch (final UncheckedIOException ex) { throw ex.getCause(); }
 	}
 
 	/** Mutator method - adds a <I>TableRow</I> object to the collection.
@@ -78,4 +119,53 @@ public class TableRows extends Element
 		@param nIndex Index of the <I>TableRow</I> object to remove.
 	*/
 	public void remove(int nIndex) { rows.remove(nIndex); }
+
+	/** Creates a table row from the current row of a cursor. */
+	@FunctionalInterface
+	public interface RowMapper
+	{
+		/** Creates the row.
+			@param rs cursor positioned on a row.
+		*/
+		TableRow map(ResultSet rs) throws SQLException;
+	}
+
+	/** Adapts a cursor to an <I>Iterator</I> of table rows. Cursor errors are thrown
+	    by <CODE>create</CODE> as an <I>IOException</I>.
+	*/
+	private static class ResultSetRows implements Iterator<TableRow>
+	{
+		private final ResultSet rs;
+		private final RowMapper mapper;
+		private Boolean next = null;	// Result of the last call to ResultSet.next that has not been consumed.
+
+		private ResultSetRows(final ResultSet rs, final RowMapper mapper)
+		{
+			this.rs = rs;
+			this.mapper = mapper;
+		}
+
+		@Override
+		public boolean hasNext()
+		{
+			if (null == next)
+			{
+				try { next = rs.next(); }
+				catch (final SQLException ex) { throw new UncheckedIOException(new IOException(ex)); }
+			}
+
+			return next;
+		}
+
+		@Override
+		public TableRow next()
+		{
+			if (!hasNext())
+				throw new NoSuchElementException();
+
+			next = null;
+			try { return mapper.map(rs); }
+			catch (final SQLException ex) { throw new UncheckedIOException(new IOException(ex)); }
+		}
+	}
 }
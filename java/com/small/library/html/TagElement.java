@@ -43,17 +43,18 @@ public abstract class TagElement extends Element
 		throws IOException
 	{ writeAttribute(writer, name, value); }
 
-	/** Helper method - Writes HTML string attributes. */
+	/** Helper method - Writes HTML string attributes. The value is escaped. */
 	protected static void writeAttribute(Writer writer, String name, String value)
 		throws IOException
 	{
 		if (null == value)
 			return;
 
-		write(writer, " ");
-		write(writer, name);
-		write(writer, "=");
-		writeWithQuotes(writer, value);
+		writer.write(' ');
+		writer.write(name);
+		writer.write("=\"");
+		HtmlWriter.escape(writer, value);
+		writer.write('"');
 	}
 
 	/** Helper method - Writes HTML integer attributes. */
@@ -68,7 +69,17 @@ public abstract class TagElement extends Element
 		if (ATTR_VALUE_NO_VALUE == value)
 			return;
 
-		writeAttribute(writer, name, "" + value);
+		writer.write(' ');
+		writer.write(name);
+		writer.write("=\"");
+		write(writer, value);
+		writer.write('"');
+	}
+
+	/** Accessor method - indicates whether the element has a name, CSS class, or CSS style attribute. */
+	protected boolean hasCoreAttributes()
+	{
+		return (null != name) || (null != cssClass) || (null != cssStyle);
 	}
 
 	/** Helper method - Writes HTML tags. */
@@ -77,7 +88,7 @@ public abstract class TagElement extends Element
 
 	/** Helper method - Writes HTML tags. */
 	protected static void writeTag(Writer writer, String tag) throws IOException
-	{ write(writer, "<"); write(writer, tag); write(writer, ">"); }
+	{ writer.write('<'); write(writer, tag); writer.write('>'); }
 
 	/** Helper method - Writes HTML closing tags. */
 	protected void writeTagClosing(String tag) throws IOException
@@ -85,7 +96,7 @@ public abstract class TagElement extends Element
 
 	/** Helper method - Writes HTML closing tags. */
 	protected static void writeTagClosing(Writer writer, String tag) throws IOException
-	{ write(writer, "</"); write(writer, tag); write(writer, ">"); }
+	{ write(writer, "</"); write(writer, tag); writer.write('>'); }
 
 	/** Helper method - opens a tag of the specified element name.
 		@param elementName Tag's element name.
@@ -114,5 +125,5 @@ public abstract class TagElement extends Element
 	protected void closeTag() throws IOException { closeTag(writer); }
 
 	/** Helper method - Closes HTML tags. */
-	protected static void closeTag(Writer writer) throws IOException { write(writer, ">"); }
+	protected static void closeTag(Writer writer) throws IOException { writer.write('>'); }
 }
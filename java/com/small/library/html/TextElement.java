@@ -33,12 +33,12 @@ public class TextElement extends Element
 		create(writer, value);
 	}
 
-	/** Action method - creates the HTML text element.
+	/** Action method - creates the HTML text element. The HTML special characters are escaped.
 		@param writer <I>Writer</I> object used to output HTML.
-		@param value Text value to be written to the page.
+		@param value Text value to be written to the page. Nothing is written if NULL.
 	*/
 	public static void create(final Writer writer, final String value) throws IOException
 	{
-		write(writer, value);
+		HtmlWriter.escape(writer, value);
 	}
 }
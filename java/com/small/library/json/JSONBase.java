@@ -1,6 +1,9 @@
 package com.small.library.json;
 
 import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
 
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -22,6 +25,13 @@ public abstract class JSONBase implements Runnable
 
 	public static final char CHAR_QUOTE = '`';
 	public static final int NUM_OF_TESTS = 10;
+	public static final int BUFFER_SIZE = 1 << 16;
+	public static final int THREADS_DEFAULT = 1;
+
+	/** System property that, when TRUE, only regenerates classes whose definitions have changed and only
+	 *  writes files whose content has changed. See <I>JSONManifest</I>.
+	 */
+	public static final String PROPERTY_INCREMENTAL = "small.library.json.incremental";
 
 	public static final String QUOTE_CHARACTER = ", quoteCharacter='" + CHAR_QUOTE + "'";
 
@@ -75,8 +85,10 @@ public abstract class JSONBase implements Runnable
 	 * 
 	 * @param args[0] the configuration file name (JSON). Required.
 	 * @param args[1] the output directory. Required.
-	 * @param args[2] comma separated list of classes to generate to limit output. Optional.
+	 * @param args[2] comma separated list of classes to generate to limit output. Optional. Leave empty to generate all classes.
+	 * @param args[3] number of worker threads. Optional. Defaults to one, which generates the classes serially.
 	 * @throws Exception
+	 * @see #PROPERTY_INCREMENTAL
 	 */
 	public static void main(final String... args) throws Exception
 	{
@@ -107,12 +119,16 @@ public abstract class JSONBase implements Runnable
 
 		var fileName = file.getAbsolutePath();
 		var classNames = (3 <= args.length) ? StringUtils.trimToNull(args[2]) : null;
+		var threads = (4 <= args.length) ? Integer.parseInt(args[3]) : THREADS_DEFAULT;
+
+		// Collect the classes to generate keyed by their item positions.
+		var classes = new LinkedHashMap<Integer, JSONClass>();
 		if (null == classNames)
 		{
 			int i = -1;
 			for (var clazz : conf.classes)
 			{
-				generate(fileName, conf, clazz, output, ++i);
+				classes.put(++i, clazz);
 			}
 		}
 		else
@@ -125,127 +141,306 @@ public abstract class JSONBase implements Runnable
 				if (null == clazz)
 					log.warn("Configuration file '{}' does not contain the class with name '{}'.", file.getAbsolutePath(), className);
 				else
-					generate(fileName, conf, clazz, output, i);
+					classes.put(i, clazz);
+			}
+		}
+
+		var manifest = Boolean.getBoolean(PROPERTY_INCREMENTAL) ? JSONManifest.load(output) : null;
+		try
+		{
+			if (1 < threads)
+				generate(fileName, conf, classes, output, threads, manifest);
+			else
+				for (var e : classes.entrySet()) generate(fileName, conf, e.getValue(), output, e.getKey(), manifest);
+		}
+		finally
+		{
+			// Keep the classes that completed even if others failed.
+			if (null != manifest)
+			{
+				manifest.save();
+				log.info("Incremental generation of '{}' - skipped {} unchanged class(es), wrote {} file(s), left {} identical file(s) untouched.",
+					fileName, manifest.getSkipped(), manifest.getWritten(), manifest.getUnchanged());
 			}
 		}
 	}
 
-	static void generate(final String fileName, final JSONConfig conf, final JSONClass clazz, final File dir, final int i)
+	/** Generates all the artifacts of a single class serially.
+	 * 
+	 * @param manifest the output of previous runs. Optional. NULL regenerates and rewrites everything.
+	 */
+	static void generate(final String fileName, final JSONConfig conf, final JSONClass clazz, final File dir, final int i, final JSONManifest manifest)
 		throws IOException
 	{
-		var indexName = indexName(clazz.name);
-
-		if (null == clazz.name)
+		var warning = validate(fileName, clazz, i);
+		if (null != warning)
 		{
-			log.warn("Item '{}' is missing the name property in '{}'.", i, fileName);
+			log.warn(warning);
 			return;	// Skip this file.
 		}
-		if (null == clazz.caption)
+
+		if (null == manifest)
 		{
-			log.warn("Item '{}' is missing the caption property in '{}'.", i, fileName);
-			return;	// Skip this file.
+			for (var artifact : artifacts(conf, clazz, new Output(dir, clazz, null, null))) artifact.write();
+			return;
 		}
-		if (CollectionUtils.isEmpty(clazz.fields))
+
+		var definition = JSONManifest.definition(conf, clazz);
+		if (manifest.current(clazz, definition)) return;
+
+		for (var artifact : artifacts(conf, clazz, new Output(dir, clazz, manifest, manifest.begin(clazz)))) artifact.write();
+
+		manifest.commit(clazz, definition);
+	}
+
+	/** Generates the artifacts of many classes in parallel. Each artifact of each class is a separate task
+	 *  on the worker pool. Warnings and errors are collected per class and reported in configuration order
+	 *  once all the tasks have completed. A single failed class does not stop the others.
+	 * 
+	 * @param fileName the configuration file name used in the warnings.
+	 * @param conf the configuration.
+	 * @param classes the classes to generate keyed by their item positions in the configuration.
+	 * @param dir the output directory.
+	 * @param threads the number of worker threads.
+	 * @param manifest the output of previous runs. Optional. NULL regenerates and rewrites everything.
+	 * @throws IOException if any of the artifacts could not be generated.
+	 */
+	static void generate(final String fileName, final JSONConfig conf, final Map<Integer, JSONClass> classes, final File dir, final int threads,
+		final JSONManifest manifest) throws IOException
+	{
+		var start = System.currentTimeMillis();
+		var results = new ArrayList<Result>(classes.size());
+		var executor = Executors.newFixedThreadPool(threads);
+
+		int artifacts = 0, warnings = 0, errors = 0;
+		Throwable failure = null;
+		try
 		{
-			log.warn("Item '{}' has not specified any fields in '{}'.", i, fileName);
-			return;	// Skip this file.
-		}
+			// Fan out every artifact of every class before waiting on any of them.
+			for (var e : classes.entrySet())
+			{
+				var clazz = e.getValue();
+				var result = new Result(e.getKey(), clazz);
+				results.add(result);
+
+				var warning = validate(fileName, clazz, e.getKey());
+				if (null != warning)
+				{
+					result.warnings.add(warning);
+					continue;	// Skip this class.
+				}
+
+				Output files;
+				if (null == manifest)
+					files = new Output(dir, clazz, null, null);
+				else
+				{
+					result.definition = JSONManifest.definition(conf, clazz);
+					if (manifest.current(clazz, result.definition)) continue;	// Unchanged since the last run.
+
+					files = new Output(dir, clazz, manifest, manifest.begin(clazz));
+				}
+
+				for (var artifact : artifacts(conf, clazz, files))
+				{
+					result.futures.add(executor.submit(() -> { artifact.write(); return null; }));
+				}
+			}
 
-		try (var out = new PrintStream(new File(dir, clazz.name + ".java")))
+			// Collect the outcomes in configuration order.
+			for (var result : results)
+			{
+				for (var future : result.futures)
+				{
+					try
+					{
+						future.get();
+						artifacts++;
+					}
+					catch (final ExecutionException ex) { result.errors.add(ex.getCause()); }
+				}
+
+				for (var warning : result.warnings) log.warn(warning);
+				for (var error : result.errors) log.error("Item '{}' ({}) failed: {}", result.index, result.clazz.name, error.getMessage(), error);
+
+				if ((null != manifest) && (null != result.definition) && result.errors.isEmpty())
+					manifest.commit(result.clazz, result.definition);
+
+				warnings+= result.warnings.size();
+				errors+= result.errors.size();
+				if ((null == failure) && !result.errors.isEmpty()) failure = result.errors.get(0);
+			}
+		}
+		catch (final InterruptedException ex)
 		{
-			if (clazz.generateRecord)
-				new JSONRecord(conf, clazz, out).run();
-			else
-				new JSONValue(conf, clazz, out).run();
-			out.flush();
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Generation of '" + fileName + "' was interrupted.");
 		}
+		finally { executor.shutdownNow(); }
+
+		log.info("Generated {} artifact(s) for {} class(es) from '{}' with {} thread(s) in {} seconds - {} warning(s), {} error(s).",
+			artifacts, results.size(), fileName, threads, ((float) (System.currentTimeMillis() - start)) / 1000f, warnings, errors);
+
+		if (null != failure)
+			throw new IOException(errors + " artifact(s) from '" + fileName + "' could not be generated.", failure);
+	}
+
+	/** Checks that a class has the properties needed to generate it.
+	 * 
+	 * @return the warning message if the class should be skipped, otherwise NULL.
+	 */
+	static String validate(final String fileName, final JSONClass clazz, final int i)
+	{
+		if (null == clazz.name)
+			return "Item '" + i + "' is missing the name property in '" + fileName + "'.";
+		if (null == clazz.caption)
+			return "Item '" + i + "' is missing the caption property in '" + fileName + "'.";
+		if (CollectionUtils.isEmpty(clazz.fields))
+			return "Item '" + i + "' has not specified any fields in '" + fileName + "'.";
+
+		return null;
+	}
+
+	/** Gets the independent units of work that generate the files of a single class. Each artifact writes
+	 *  one file except for the test fixtures, which share sample data and are written together.
+	 */
+	static List<Artifact> artifacts(final JSONConfig conf, final JSONClass clazz, final Output files)
+	{
+		var indexName = indexName(clazz.name);
+		var o = new ArrayList<Artifact>(10);
 
-		try (var out = new PrintStream(new File(dir, clazz.name + "Test.java")))
+		if (clazz.generateRecord)
 		{
-			if (clazz.generateRecord)
-				new JSONRecordTest(conf, clazz, out).run();
-			else
-				new JSONValueTest(conf, clazz, out).run();
-			out.flush();
+			o.add(() -> files.write(clazz.name + ".java", out -> new JSONRecord(conf, clazz, out)));
+			o.add(() -> files.write(clazz.name + "Test.java", out -> new JSONRecordTest(conf, clazz, out)));
+		}
+		else
+		{
+			o.add(() -> files.write(clazz.name + ".java", out -> new JSONValue(conf, clazz, out)));
+			o.add(() -> files.write(clazz.name + "Test.java", out -> new JSONValueTest(conf, clazz, out)));
 		}
 
 		if (clazz.generateFilter)
 		{
-			try (var out = new PrintStream(new File(dir, JSONFilter.getClassName(clazz.name) + ".java")))
-			{
-				new JSONFilter(conf, clazz, out).run();
-				out.flush();
-			}
-			try (var out = new PrintStream(new File(dir, JSONFilterTest.getClassName(clazz.name) + ".java")))
-			{
-				new JSONFilterTest(conf, clazz, out).run();
-				out.flush();
-			}
+			o.add(() -> files.write(JSONFilter.getClassName(clazz.name) + ".java", out -> new JSONFilter(conf, clazz, out)));
+			o.add(() -> files.write(JSONFilterTest.getClassName(clazz.name) + ".java", out -> new JSONFilterTest(conf, clazz, out)));
 		}
 
 		if (clazz.generateElastic)
 		{
-			try (var out = new PrintStream(new File(dir, JSONElastic.getClassName(clazz.name) + ".java")))
-			{
-				new JSONElastic(conf, clazz, out).run();
-				out.flush();
-			}
-			try (var out = new PrintStream(new File(dir, JSONElasticTest.getClassName(clazz.name) + ".java")))
-			{
-				new JSONElasticTest(conf, clazz, out).run();
-				out.flush();
-			}
-			try (var out = new PrintStream(new File(dir, indexName + ".json")))
-			{
-				new JSONElasticMapping(conf, clazz, out).run();
-				out.flush();
-			}
+			o.add(() -> files.write(JSONElastic.getClassName(clazz.name) + ".java", out -> new JSONElastic(conf, clazz, out)));
+			o.add(() -> files.write(JSONElasticTest.getClassName(clazz.name) + ".java", out -> new JSONElasticTest(conf, clazz, out)));
+			o.add(() -> files.write(indexName + ".json", out -> new JSONElasticMapping(conf, clazz, out)));
 		}
 
 		if (clazz.generateResource)
 		{
-			try (var out = new PrintStream(new File(dir, JSONResource.getClassName(clazz.name) + ".java")))
-			{
-				new JSONResource(conf, clazz, out).run();
-				out.flush();
-			}
-
-			try (var out = new PrintStream(new File(dir, JSONResourceTest.getClassName(clazz.name) + ".java")))
-			{
-				new JSONResourceTest(conf, clazz, out).run();
-				out.flush();
-			}
+			o.add(() -> files.write(JSONResource.getClassName(clazz.name) + ".java", out -> new JSONResource(conf, clazz, out)));
+			o.add(() -> files.write(JSONResourceTest.getClassName(clazz.name) + ".java", out -> new JSONResourceTest(conf, clazz, out)));
 		}
 
 		if (clazz.generateResource || clazz.generateElastic)
 		{
-			final JSONIndexTest indexTest;
+			o.add(() -> {
+				var indexTest = files.write(indexName + "-index.csv", out -> new JSONIndexTest(conf, clazz, out, 1));
+				var input = indexTest.inputs.get(0);
+				var sample = indexTest.sampleData.get(0);
 
-			try (var out = new PrintStream(new File(dir, indexName + "-index.csv")))
-			{
-				(indexTest = new JSONIndexTest(conf, clazz, out, 1)).run();
-				out.flush();
-			}
-			try (var out = new PrintStream(new File(dir, indexName + "-invalid.csv")))
-			{
-				new JSONInvalidTest(conf, clazz, out, indexTest.inputs.get(0), indexTest.sampleData.get(0)).run();
-				out.flush();
-			}
-			try (var out = new PrintStream(new File(dir, indexName + "-invalid-patch.csv")))
-			{
-				new JSONInvalidPatchTest(conf, clazz, out, indexTest.inputs.get(0), indexTest.sampleData.get(0)).run();
-				out.flush();
-			}
-			try (var out = new PrintStream(new File(dir, indexName + "-update.csv")))
+				files.write(indexName + "-invalid.csv", out -> new JSONInvalidTest(conf, clazz, out, input, sample));
+				files.write(indexName + "-invalid-patch.csv", out -> new JSONInvalidPatchTest(conf, clazz, out, input, sample));
+				files.write(indexName + "-update.csv", out -> new JSONIndexTest(conf, clazz, out, 7));
+				files.write(indexName + "-search.csv", out -> new JSONSearchTest(conf, clazz, out, indexTest.sampleData));
+			});
+		}
+
+		return o;
+	}
+
+	/** Runs a single generator against a buffered file stream.
+	 * 
+	 * @param file the output file.
+	 * @param generator creates the generator from the output stream.
+	 * @return the generator after it has run so that its state can be shared with dependent generators.
+	 * @throws IOException if the file could not be opened or written.
+	 */
+	static <T extends Runnable> T write(final File file, final Function<PrintStream, T> generator) throws IOException
+	{
+		try (var out = new PrintStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE)))
+		{
+			var o = generator.apply(out);
+			o.run();
+			out.flush();
+			if (out.checkError())
+				throw new IOException("Could not write '" + file.getAbsolutePath() + "'.");
+
+			return o;
+		}
+	}
+
+	/** Writes the files of a single class to the output directory. When a manifest is provided, each file
+	 *  is rendered in memory first and only written if its content differs from the previous run.
+	 */
+	static class Output
+	{
+		final File dir;
+		final JSONClass clazz;
+		final JSONManifest manifest;
+		final Map<String, String> previous;
+
+		Output(final File dir, final JSONClass clazz, final JSONManifest manifest, final Map<String, String> previous)
+		{
+			this.dir = dir;
+			this.clazz = clazz;
+			this.manifest = manifest;
+			this.previous = previous;
+		}
+
+		<T extends Runnable> T write(final String fileName, final Function<PrintStream, T> generator) throws IOException
+		{
+			var file = new File(dir, fileName);
+			if (null == manifest) return JSONBase.write(file, generator);
+
+			var bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+			T o;
+			try (var out = new PrintStream(bytes))
 			{
-				new JSONIndexTest(conf, clazz, out, 7).run();
-				out.flush();
+				(o = generator.apply(out)).run();
 			}
-			try (var out = new PrintStream(new File(dir, indexName + "-search.csv")))
+
+			var content = bytes.toByteArray();
+			if (manifest.changed(clazz, file, previous.get(fileName), content))
 			{
-				new JSONSearchTest(conf, clazz, out, indexTest.sampleData).run();
-				out.flush();
+				try (var out = new FileOutputStream(file))
+				{
+					out.write(content);
+				}
 			}
+
+			return o;
+		}
+	}
+
+	/** Represents the generation of one or more files of a class. */
+	@FunctionalInterface
+	interface Artifact
+	{
+		void write() throws IOException;
+	}
+
+	/** Collects the outcome of generating a single class in parallel mode. */
+	private static class Result
+	{
+		final int index;
+		final JSONClass clazz;
+		final List<String> warnings = new ArrayList<>(1);
+		final List<Future<?>> futures = new ArrayList<>(10);
+		final List<Throwable> errors = new ArrayList<>(1);
+		String definition;	// Only set in incremental mode.
+
+		Result(final int index, final JSONClass clazz)
+		{
+			this.index = index;
+			this.clazz = clazz;
 		}
 	}
 }
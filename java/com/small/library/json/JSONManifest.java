@@ -0,0 +1,190 @@
+package com.small.library.json;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.SerializationUtils;
+
+/** Tracks the output of previous generation runs so that unchanged classes and files are not rewritten.
+ *  The manifest is a properties file in the output directory. Each class is keyed by its name with the
+ *  hash of its definition, and each generated file is keyed by the class name plus the file name with
+ *  the hash of its content.
+ *
+ * @author smalleyd
+ * @version 4.0
+ * @since 10/17/2026
+ *
+ */
+
+public class JSONManifest
+{
+	public static final String FILE_NAME = ".json-generator.properties";
+
+	/** Classes whose code determines the generated output. A change to any of them invalidates every class definition. */
+	private static final List<Class<?>> GENERATORS = List.of(JSONBase.class, JSONElastic.class, JSONElasticMapping.class, JSONElasticTest.class,
+		JSONField.class, JSONFilter.class, JSONFilterTest.class, JSONIndexTest.class, JSONInvalidPatchTest.class, JSONInvalidTest.class,
+		JSONRecord.class, JSONRecordTest.class, JSONResource.class, JSONResourceTest.class, JSONSearchTest.class, JSONValue.class, JSONValueTest.class);
+	private static final String VERSION = version();
+
+	private final File file;
+	private final Map<String, String> entries = new ConcurrentHashMap<>();
+	private final AtomicInteger skipped = new AtomicInteger();
+	private final AtomicInteger written = new AtomicInteger();
+	private final AtomicInteger unchanged = new AtomicInteger();
+
+	/** Accessor method - number of classes skipped because their definitions had not changed. */
+	public int getSkipped() { return skipped.get(); }
+
+	/** Accessor method - number of files written because their content had changed. */
+	public int getWritten() { return written.get(); }
+
+	/** Accessor method - number of files regenerated with the same content and so not written. */
+	public int getUnchanged() { return unchanged.get(); }
+
+	private JSONManifest(final File file)
+	{
+		this.file = file;
+	}
+
+	/** Loads the manifest from the output directory. An empty manifest is returned on the first run. */
+	public static JSONManifest load(final File dir) throws IOException
+	{
+		var o = new JSONManifest(new File(dir, FILE_NAME));
+		if (o.file.isFile())
+		{
+			var props = new Properties();
+			try (var in = new BufferedInputStream(new FileInputStream(o.file)))
+			{
+				props.load(in);
+			}
+			props.forEach((k, v) -> o.entries.put((String) k, (String) v));
+		}
+
+		return o;
+	}
+
+	/** Saves the manifest to the output directory. */
+	public void save() throws IOException
+	{
+		var props = new Properties();
+		props.putAll(entries);
+		try (var out = new BufferedOutputStream(new FileOutputStream(file)))
+		{
+			props.store(out, "Generated by " + JSONBase.class.getName() + ". Delete to force a full regeneration.");
+		}
+	}
+
+	/** Hashes everything that determines the output of a class: the generator code, the configuration header,
+	 *  the class itself, and any configuration classes referenced by its fields.
+	 */
+	public static String definition(final JSONConfig conf, final JSONClass clazz)
+	{
+		var classes = new LinkedHashMap<String, JSONClass>();
+		reference(conf, clazz, classes);
+
+		var digest = DigestUtils.getSha256Digest();
+		digest.update(VERSION.getBytes());
+		digest.update(SerializationUtils.serialize(new Object[] { conf.packageName, toArrayList(conf.imports), conf.author, conf.version }));
+		classes.values().forEach(v -> digest.update(SerializationUtils.serialize(v)));
+
+		return Hex.encodeHexString(digest.digest());
+	}
+
+	/** Indicates that the class definition matches the previous run and that all of its files still exist. */
+	public boolean current(final JSONClass clazz, final String definition)
+	{
+		if (!definition.equals(entries.get(clazz.name))) return false;
+
+		var prefix = clazz.name + ".";
+		for (var key : entries.keySet())
+		{
+			if (key.startsWith(prefix) && !new File(file.getParentFile(), key.substring(prefix.length())).isFile()) return false;
+		}
+
+		skipped.incrementAndGet();
+		return true;
+	}
+
+	/** Forgets the class and its files before it is regenerated so that a failed run leaves the class marked as changed.
+	 *
+	 * @return the content hashes of the files from the previous run keyed by file name.
+	 */
+	public Map<String, String> begin(final JSONClass clazz)
+	{
+		var prefix = clazz.name + ".";
+		var o = new HashMap<String, String>();
+		entries.remove(clazz.name);
+		entries.entrySet().removeIf(e -> {
+			if (!e.getKey().startsWith(prefix)) return false;
+
+			o.put(e.getKey().substring(prefix.length()), e.getValue());
+			return true;
+		});
+
+		return o;
+	}
+
+	/** Records the content of a generated file.
+	 *
+	 * @return TRUE if the content differs from the previous run or the file no longer exists, and so should be written.
+	 */
+	public boolean changed(final JSONClass clazz, final File output, final String previous, final byte[] content)
+	{
+		var hash = DigestUtils.sha256Hex(content);
+		entries.put(clazz.name + "." + output.getName(), hash);
+
+		if (hash.equals(previous) && output.isFile())
+		{
+			unchanged.incrementAndGet();
+			return false;
+		}
+
+		written.incrementAndGet();
+		return true;
+	}
+
+	/** Records the definition of a class once all of its files have been generated. */
+	public void commit(final JSONClass clazz, final String definition)
+	{
+		entries.put(clazz.name, definition);
+	}
+
+	/** Helper method - collects the class and, transitively, the configuration classes used as field types. */
+	private static void reference(final JSONConfig conf, final JSONClass clazz, final Map<String, JSONClass> classes)
+	{
+		if ((null != classes.putIfAbsent(clazz.name, clazz)) || (null == clazz.fields)) return;
+
+		for (var f : clazz.fields)
+		{
+			var c = conf.clazz(f.type);
+			if (null != c) reference(conf, c, classes);
+		}
+	}
+
+	/** Helper method - hashes the byte code of the generators so that generator changes invalidate previous output. */
+	private static String version()
+	{
+		var digest = DigestUtils.getSha256Digest();
+		for (var c : GENERATORS)
+		{
+			digest.update(c.getName().getBytes());
+			try (var in = c.getResourceAsStream(c.getSimpleName() + ".class"))
+			{
+				if (null != in) DigestUtils.updateDigest(digest, in);
+			}
+			catch (final IOException ex) { throw new UncheckedIOException(ex); }
+		}
+
+		return Hex.encodeHexString(digest.digest());
+	}
+
+	/** Helper method - copies a list into a serializable form. */
+	private static ArrayList<String> toArrayList(final List<String> values)
+	{
+		return (null != values) ? new ArrayList<>(values) : null;
+	}
+}
@@ -1,5 +1,7 @@
 package com.small.library.metadata;
 
+import java.io.File;
+import java.io.IOException;
 import java.sql.*;
 import java.util.*;
 
@@ -15,7 +17,17 @@ import javax.sql.DataSource;
  */
 public class DBMetadata
 {
+	private static final Comparator<Key> KEY_ORDER = Comparator.comparingInt(k -> k.order);
+
+	/** SQL states of drivers that reject a catalog-wide call for its missing table name: invalid argument value
+	 *  and invalid use of a null pointer.
+	 */
+	private static final List<String> INVALID_ARGUMENT_STATES = List.of("S1009", "HY009", "HY024");
+
 	private final DataSource dataSource;
+	private volatile SchemaSnapshot snapshot = null;
+	private volatile Session session = null;
+	private volatile MetadataProvider provider = null;	// Resolved on the first key or index call.
 
 	public DBMetadata(final DataSource dataSource)
 	{
@@ -24,12 +36,35 @@ public class DBMetadata
 
 	public String getCatalog() throws SQLException
 	{
-		try (var connection = dataSource.getConnection())
-		{
-			return connection.getCatalog();
-		}
+		var o = snapshot;
+		if (null != o)
+			return o.catalog;
+
+		return call("getCatalog", (metadata, catalog) -> catalog);
+	}
+
+	/** Accessor method - gets the schema snapshot that the table-level calls are served from. <CODE>null</CODE> if not loaded. */
+	public SchemaSnapshot getSnapshot() { return snapshot; }
+
+	/** Opens a session that serves all the calls of this instance, including the lazy loads of its tables, from a single
+	 *  connection with its <I>DatabaseMetaData</I> and catalog resolved once. Records the time spent in each kind of call.
+	 *  Calls from several threads are serialized on the connection, so use with single threaded runs.
+	 * 
+	 * @return the session. Close to release the connection, after which calls check out a connection each again.
+	 * @throws IllegalStateException if a session is already open.
+	 * @throws SQLException
+	 */
+	public synchronized Session openSession() throws SQLException
+	{
+		if (null != session)
+			throw new IllegalStateException("A metadata session is already open.");
+
+		return session = new Session(dataSource.getConnection());
 	}
 
+	/** Accessor method - gets the open session. <CODE>null</CODE> if none. */
+	public Session getSession() { return session; }
+
 	public List<Column> getColumns(final Table table) throws SQLException
 	{
 		return getColumns(table.schema, table.name);
@@ -37,8 +72,16 @@ public class DBMetadata
 
 	public List<Column> getColumns(final String schema, final String table) throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-		     var rs = connection.getMetaData().getColumns(connection.getCatalog(), schema, table, null))
+		var o = snapshot;
+		if ((null != o) && o.contains(schema, table))
+			return o.getColumns(schema, table);
+
+		return call("getColumns", (metadata, catalog) -> getColumns(metadata, catalog, schema, table));
+	}
+
+	private List<Column> getColumns(final DatabaseMetaData metadata, final String catalog, final String schema, final String table) throws SQLException
+	{
+		try (var rs = metadata.getColumns(catalog, schema, table, null))
 		{
 			return toList(r -> new Column(r), rs, Column.class);
 		}
@@ -51,8 +94,16 @@ public class DBMetadata
 
 	public List<ForeignKey> getExportedKeys(final String schema, final String table) throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-			 var rs = connection.getMetaData().getExportedKeys(connection.getCatalog(), schema, table))
+		var o = snapshot;
+		if ((null != o) && o.contains(schema, table))
+			return o.getExportedKeys(schema, table);
+
+		return call("getExportedKeys", (metadata, catalog) -> getExportedKeys(metadata, catalog, schema, table));
+	}
+
+	private List<ForeignKey> getExportedKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table) throws SQLException
+	{
+		try (var rs = query(metadata, p -> p.getExportedKeys(metadata, catalog, schema, table)))
 		{
 			return toForeignKeys(rs);
 		}
@@ -65,8 +116,16 @@ public class DBMetadata
 
 	public List<ForeignKey> getImportedKeys(final String schema, final String table) throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-			 var rs = connection.getMetaData().getImportedKeys(connection.getCatalog(), schema, table))
+		var o = snapshot;
+		if ((null != o) && o.contains(schema, table))
+			return o.getImportedKeys(schema, table);
+
+		return call("getImportedKeys", (metadata, catalog) -> getImportedKeys(metadata, catalog, schema, table));
+	}
+
+	private List<ForeignKey> getImportedKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table) throws SQLException
+	{
+		try (var rs = query(metadata, p -> p.getImportedKeys(metadata, catalog, schema, table)))
 		{
 			return toForeignKeys(rs);
 		}
@@ -79,8 +138,16 @@ public class DBMetadata
 
 	public List<Index> getIndexes(final String schema, final String table) throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-		     var rs = connection.getMetaData().getIndexInfo(connection.getCatalog(), schema, table, false, true))
+		var o = snapshot;
+		if ((null != o) && o.contains(schema, table))
+			return o.getIndexes(schema, table);
+
+		return call("getIndexes", (metadata, catalog) -> getIndexes(metadata, catalog, schema, table));
+	}
+
+	private List<Index> getIndexes(final DatabaseMetaData metadata, final String catalog, final String schema, final String table) throws SQLException
+	{
+		try (var rs = query(metadata, p -> p.getIndexInfo(metadata, catalog, schema, table)))
 		{
 			Index last = null;
 			final List<Index> values = new LinkedList<>();
@@ -106,11 +173,30 @@ public class DBMetadata
 
 	public List<Parameter> getParameters(final String schema, final String procedure) throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-		     var rs = connection.getMetaData().getProcedureColumns(connection.getCatalog(), schema, procedure, null))
-		{
-			return toList(r -> new Parameter(r), rs, Parameter.class);
-		}
+		return call("getProcedureColumns", (metadata, catalog) -> {
+			try (var rs = metadata.getProcedureColumns(catalog, schema, procedure, null))
+			{
+				return toList(r -> new Parameter(r), rs, Parameter.class);
+			}
+		});
+	}
+
+	/** Accessor method - gets the parameters of all the procedures with a single metadata call instead of a call per procedure.
+	 * 
+	 * @return parameters grouped by procedure and keyed by <I>SchemaSnapshot.key</I>. Procedures without parameters are absent.
+	 */
+	public Map<String, List<Parameter>> getParameters() throws SQLException
+	{
+		return call("getProcedureColumns", (metadata, catalog) -> {
+			try (var rs = metadata.getProcedureColumns(catalog, null, null, null))
+			{
+				var values = new LinkedHashMap<String, List<Parameter>>();
+				while (rs.next())
+					values.computeIfAbsent(SchemaSnapshot.key(rs.getString(2), rs.getString(3)), k -> new ArrayList<>()).add(new Parameter(rs));
+
+				return values;
+			}
+		});
 	}
 
 	public List<PrimaryKey> getPrimaryKeys(final Table table) throws SQLException
@@ -118,17 +204,25 @@ public class DBMetadata
 		return getPrimaryKeys(table.schema, table.name);
 	}
 
-	@SuppressWarnings("unchecked")
 	public List<PrimaryKey> getPrimaryKeys(final String schema, final String table) throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-		     var rs = connection.getMetaData().getPrimaryKeys(connection.getCatalog(), schema, table))
+		var o = snapshot;
+		if ((null != o) && o.contains(schema, table))
+			return o.getPrimaryKeys(schema, table);
+
+		return call("getPrimaryKeys", (metadata, catalog) -> getPrimaryKeys(metadata, catalog, schema, table));
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<PrimaryKey> getPrimaryKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table) throws SQLException
+	{
+		try (var rs = query(metadata, p -> p.getPrimaryKeys(metadata, catalog, schema, table)))
 		{
 			return toList(r -> new PrimaryKey(r), rs, PrimaryKey.class);
 		}
 		catch (final SQLException ex)
 		{
-			if (ex.getSQLState().substring(0, 2).equals("IM"))
+			if (isNotSupported(ex))
 				return Collections.EMPTY_LIST;
 
 			throw ex;
@@ -137,11 +231,12 @@ public class DBMetadata
 
 	public List<Procedure> getProcedures() throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-		     var rs = connection.getMetaData().getProcedures(connection.getCatalog(), null, null))
-		{
-			return toList(r -> new Procedure(r), rs, Procedure.class);
-		}
+		return call("getProcedures", (metadata, catalog) -> {
+			try (var rs = metadata.getProcedures(catalog, null, null))
+			{
+				return toList(r -> new Procedure(r), rs, Procedure.class);
+			}
+		});
 	}
 
 	public List<Table> getTables() throws SQLException
@@ -151,22 +246,336 @@ public class DBMetadata
 
 	public List<Table> getTables(final String tableNamePattern, final String... types) throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-		     var rs = connection.getMetaData().getTables(connection.getCatalog(), null, tableNamePattern, types))
+		var o = snapshot;
+		if ((null != o) && (null == o.schemaPattern))	// Only a snapshot of all schemas can stand in for the database.
+			return o.getTables(tableNamePattern, types);
+
+		return call("getTables", (metadata, catalog) -> {
+			try (var rs = metadata.getTables(catalog, null, tableNamePattern, types))
+			{
+				return toList(r -> new Table(r, this), rs, Table.class);
+			}
+		});
+	}
+
+	/** Loads the columns, keys, and indexes of a single table on one connection. Served from the snapshot
+	 *  when the table is in it. Used by <I>Table.preload</I>.
+	 *
+	 * @param loaded indicates which of the columns, indexes, primary keys, imported keys, and exported keys are
+	 *               already loaded. Those are skipped and passed to the consumer as <CODE>null</CODE>.
+	 */
+	void preload(final Table table, final boolean[] loaded, final TableConsumer consumer) throws SQLException
+	{
+		var o = snapshot;
+		if ((null != o) && o.contains(table.schema, table.name))
 		{
-			return toList(r -> new Table(r, this), rs, Table.class);
+			consumer.accept(o.getColumns(table.schema, table.name),
+				o.getIndexes(table.schema, table.name),
+				o.getPrimaryKeys(table.schema, table.name),
+				o.getImportedKeys(table.schema, table.name),
+				o.getExportedKeys(table.schema, table.name));
+			return;
 		}
+
+		call("preload", (metadata, catalog) -> {
+			consumer.accept(loaded[0] ? null : getColumns(metadata, catalog, table.schema, table.name),
+				loaded[1] ? null : getIndexes(metadata, catalog, table.schema, table.name),
+				loaded[2] ? null : getPrimaryKeys(metadata, catalog, table.schema, table.name),
+				loaded[3] ? null : getImportedKeys(metadata, catalog, table.schema, table.name),
+				loaded[4] ? null : getExportedKeys(metadata, catalog, table.schema, table.name));
+			return null;
+		});
+	}
+
+	/** Loads the columns, primary keys, foreign keys, and indexes of every table that matches the schema pattern
+	 *  with a handful of catalog-wide calls on a single connection. Once loaded, the table-level calls, and therefore
+	 *  <I>Table</I> and the generators, are served from memory. Drivers that reject a catalog-wide call (i.e. require
+	 *  a table name) fall back to one call per table on the same connection. Exported keys are derived from the
+	 *  imported keys, so only references from tables within the snapshot are included.
+	 * 
+	 * @param schemaPattern schema name pattern. <CODE>null</CODE> loads all schemas.
+	 * @return the snapshot that is now used by this instance.
+	 * @throws SQLException
+	 */
+	public SchemaSnapshot snapshot(final String schemaPattern) throws SQLException
+	{
+		return call("snapshot", (metadata, catalog) -> snapshot = snapshot(metadata, catalog, schemaPattern));
+	}
+
+	/** Helper method - loads a snapshot without serving the table-level calls from it. */
+	private SchemaSnapshot snapshot(final DatabaseMetaData metadata, final String catalog, final String schemaPattern) throws SQLException
+	{
+		final SchemaSnapshot value;
+		try (var rs = metadata.getTables(catalog, schemaPattern, null, null))
+		{
+			value = new SchemaSnapshot(catalog, schemaPattern, toList(r -> new Table(r, this), rs, Table.class));
+		}
+
+		try (var rs = metadata.getColumns(catalog, schemaPattern, null, null))
+		{
+			while (rs.next())
+			{
+				var o = value.find(rs.getString(2), rs.getString(3));
+				if (null != o) o.columns.add(new Column(rs));
+			}
+		}
+
+		try (var rs = query(metadata, p -> p.getPrimaryKeys(metadata, catalog, schemaPattern, null)))
+		{
+			while (rs.next())
+			{
+				var o = value.find(rs.getString(2), rs.getString(3));
+				if (null != o) o.primaryKeys.add(new PrimaryKey(rs));
+			}
+		}
+		catch (final SQLException ex)
+		{
+			fallBack(metadata, ex);
+			for (var t : value.tables)
+			{
+				var o = value.find(t.schema, t.name);
+				o.primaryKeys.clear();	// In case the failure occurred part way through the results.
+				o.primaryKeys.addAll(getPrimaryKeys(metadata, catalog, t.schema, t.name));
+			}
+		}
+
+		try (var rs = query(metadata, p -> p.getImportedKeys(metadata, catalog, schemaPattern, null)))
+		{
+			// Grouped by the foreign table, name, and primary table since unnamed keys have a NULL name.
+			var keys = new HashMap<String, ForeignKey>();
+			var values = new ArrayList<ForeignKey>();
+			while (rs.next())
+			{
+				var o = value.find(rs.getString(6), rs.getString(7));
+				if (null == o) continue;
+
+				var key = SchemaSnapshot.key(rs.getString(6), rs.getString(7)) + "." + rs.getString(12) + "." + SchemaSnapshot.key(rs.getString(2), rs.getString(3));
+				var fk = keys.get(key);
+				if ((null != fk) && (1 != rs.getShort(9)))	// The first column starts another key.
+					fk.addKey(rs);
+				else
+				{
+					keys.put(key, fk = new ForeignKey(rs));
+					values.add(fk);
+					o.importedKeys.add(fk);
+				}
+			}
+
+			// Catalog-wide results are ordered by the primary table so the columns of a composite key may be interleaved.
+			values.forEach(fk -> { fk.pks.sort(KEY_ORDER); fk.fks.sort(KEY_ORDER); });
+		}
+		catch (final SQLException ex)
+		{
+			fallBack(metadata, ex);
+			for (var t : value.tables)
+			{
+				var o = value.find(t.schema, t.name);
+				o.importedKeys.clear();	// In case the failure occurred part way through the results.
+				o.importedKeys.addAll(getImportedKeys(metadata, catalog, t.schema, t.name));
+			}
+		}
+
+		for (var t : value.tables)
+			for (var fk : value.find(t.schema, t.name).importedKeys)
+			{
+				var o = value.find(fk.pkSchema, fk.pkTable);
+				if (null != o) o.exportedKeys.add(fk);
+			}
+
+		try (var rs = query(metadata, p -> p.getIndexInfo(metadata, catalog, schemaPattern, null)))
+		{
+			var indexes = new HashMap<String, Index>();
+			while (rs.next())
+			{
+				if (DatabaseMetaData.tableIndexStatistic == rs.getShort(7))
+					continue;
+
+				var o = value.find(rs.getString(2), rs.getString(3));
+				if (null == o) continue;
+
+				var key = SchemaSnapshot.key(rs.getString(2), rs.getString(3)) + "." + rs.getString(6);
+				var index = indexes.get(key);
+				if (null != index)
+					index.addKey(rs);
+				else
+				{
+					indexes.put(key, index = new Index(rs));
+					o.indexes.add(index);
+				}
+			}
+
+			indexes.values().forEach(i -> i.keys.sort(KEY_ORDER));
+		}
+		catch (final SQLException ex)
+		{
+			fallBack(metadata, ex);
+			for (var t : value.tables)
+			{
+				var o = value.find(t.schema, t.name);
+				o.indexes.clear();	// In case the failure occurred part way through the results.
+				o.indexes.addAll(getIndexes(metadata, catalog, t.schema, t.name));
+			}
+		}
+
+		return value;
+	}
+
+	/** Serves the table-level calls from a snapshot persisted in the cache file.
+	 * 
+	 * @param schemaPattern schema name pattern. <CODE>null</CODE> loads all schemas.
+	 * @param file cache file. See <I>SchemaSnapshot.fileName</I>.
+	 * @param offline <CODE>true</CODE> to use an existing cache file without checking the database for changes.
+	 * @return the snapshot that is now used by this instance.
+	 * @throws SQLException
+	 * @throws IOException if the cache file cannot be written.
+	 */
+	public SchemaSnapshot snapshot(final String schemaPattern, final File file, final boolean offline) throws SQLException, IOException
+	{
+		return snapshot(schemaPattern, file, offline ? Long.MAX_VALUE : 0L);
+	}
+
+	/** Serves the table-level calls from a snapshot persisted in the cache file. A cache file that was written, or last
+	 *  found current, within the maximum age is used without calling the database. Otherwise the snapshot is loaded
+	 *  from the database, since the cache can only be checked for staleness against the same catalog-wide calls, and
+	 *  written to the file when the file does not exist, cannot be read, was taken with a different schema pattern,
+	 *  or is stale.
+	 * 
+	 * @param schemaPattern schema name pattern. <CODE>null</CODE> loads all schemas.
+	 * @param file cache file. See <I>SchemaSnapshot.fileName</I>.
+	 * @param maxAge milliseconds that a cache file is used without checking the database for changes. Zero always
+	 *               checks and <CODE>Long.MAX_VALUE</CODE> never does.
+	 * @return the snapshot that is now used by this instance.
+	 * @throws SQLException
+	 * @throws IOException if the cache file cannot be written.
+	 */
+	public SchemaSnapshot snapshot(final String schemaPattern, final File file, final long maxAge) throws SQLException, IOException
+	{
+		SchemaSnapshot cached = null;
+		if (file.isFile())
+		{
+			try { cached = SchemaSnapshot.read(file); }
+			catch (final IOException | RuntimeException ex) {}	// Truncated or from an incompatible version, so reload it.
+		}
+		if ((null != cached) && !Objects.equals(schemaPattern, cached.schemaPattern))
+			cached = null;
+		if ((null != cached) && (maxAge > (System.currentTimeMillis() - file.lastModified())))
+			return load(cached);
+
+		var value = snapshot(schemaPattern);
+		if ((null == cached) || !Objects.equals(cached.catalog, value.catalog) || !cached.getFingerprint().equals(value.getFingerprint()))
+			value.write(file);
+		else
+			file.setLastModified(System.currentTimeMillis());	// Still current, so restart its age.
+
+		return value;
+	}
+
+	/** Serves the table-level calls from a previously persisted snapshot. Attaches the snapshot's tables to this instance.
+	 * 
+	 * @param value snapshot read from disk.
+	 * @return the same snapshot.
+	 */
+	public SchemaSnapshot load(final SchemaSnapshot value)
+	{
+		value.tables.forEach(t -> t.attach(this));
+
+		return snapshot = value;
+	}
+
+	/** Indicates whether a persisted snapshot still matches the database. Compares the snapshot's fingerprint, which
+	 *  covers the tables, columns, keys, and indexes, with that of a snapshot loaded with the same catalog-wide calls.
+	 * 
+	 * @param value persisted snapshot.
+	 * @throws SQLException
+	 */
+	public boolean isCurrent(final SchemaSnapshot value) throws SQLException
+	{
+		return call("isCurrent", (metadata, catalog) -> {
+			if (!Objects.equals(catalog, value.catalog))
+				return false;
+
+			return value.getFingerprint().equals(snapshot(metadata, catalog, value.schemaPattern).getFingerprint());
+		});
 	}
 
 	public List<TypeInfo> getTypeInfo() throws SQLException
 	{
-		try (var connection = dataSource.getConnection();
-		     var rs = connection.getMetaData().getTypeInfo())
+		return call("getTypeInfo", (metadata, catalog) -> {
+			try (var rs = metadata.getTypeInfo())
+			{
+				return toList(r -> new TypeInfo(r), rs, TypeInfo.class);
+			}
+		});
+	}
+
+	/** Helper method - runs a metadata call on the open session, or on a connection of its own if none. */
+	private <T> T call(final String name, final MetadataFunction<T> fx) throws SQLException
+	{
+		var o = session;
+		if (null != o)
+			return o.call(name, fx);
+
+		try (var connection = dataSource.getConnection())
+		{
+			return fx.apply(connection.getMetaData(), connection.getCatalog());
+		}
+	}
+
+	/** Helper method - gets a key or index cursor from the provider of the database. A catalog query that the provider
+	 *  reports as a fallback, e.g. for lack of privileges, switches this instance to the JDBC driver and is retried
+	 *  there. The switch is recorded in the timings of the open session as "fallback." plus the provider name.
+	 *  Other failures, e.g. a lost connection, are thrown.
+	 */
+	private ResultSet query(final DatabaseMetaData metadata, final SQLFunction<MetadataProvider, ResultSet> fx) throws SQLException
+	{
+		var o = provider;
+		if (null == o)
+			provider = o = MetadataProvider.of(metadata);
+
+		if (MetadataProvider.JDBC == o)
+			return fx.apply(o);
+
+		try { return fx.apply(o); }
+		catch (final SQLException ex)
 		{
-			return toList(r -> new TypeInfo(r), rs, TypeInfo.class);
+			if (!o.isFallback(ex))
+				throw ex;
+
+			rollback(metadata);
+			provider = MetadataProvider.JDBC;
+
+			final long start = System.nanoTime();
+			try { return fx.apply(MetadataProvider.JDBC); }
+			finally
+			{
+				var s = session;
+				if (null != s) s.add("fallback." + o.getClass().getSimpleName(), System.nanoTime() - start);
+			}
 		}
 	}
 
+	/** Helper method - lets a catalog-wide key or index call fall back to the per-table calls when the driver does not
+	 *  support it, rejects the missing table name (e.g. MySQL's "Table not specified"), or the database refuses it for
+	 *  lack of privileges. Other failures, e.g. a lost connection, are thrown.
+	 */
+	private static void fallBack(final DatabaseMetaData metadata, final SQLException ex) throws SQLException
+	{
+		var state = ex.getSQLState();
+		if (!isNotSupported(ex) && !(ex instanceof SQLFeatureNotSupportedException) &&
+		    ((null == state) || !INVALID_ARGUMENT_STATES.contains(state)) && !MetadataProvider.of(metadata).isFallback(ex))
+			throw ex;
+
+		rollback(metadata);
+	}
+
+	/** Helper method - rolls back a failed catalog call since PostgreSQL aborts the rest of the transaction after an error. */
+	private static void rollback(final DatabaseMetaData metadata) throws SQLException
+	{
+		var connection = metadata.getConnection();
+		if (!connection.getAutoCommit())
+			connection.rollback();
+	}
+
 	private <T> List<T> toList(final SQLFunction<ResultSet, T> fx, final ResultSet rs, final Class<T> clazz)
 		throws SQLException
 	{
@@ -183,7 +592,7 @@ public class DBMetadata
 		var values = new LinkedList<ForeignKey>();
 		while (rs.next())
 		{
-			if ((null != last) && last.name.equals(rs.getString(12)))
+			if ((null != last) && isSameKey(last, rs))
 				last.addKey(rs);
 			else
 				values.add(last = new ForeignKey(rs));
@@ -192,9 +601,131 @@ public class DBMetadata
 		return values;
 	}
 
+	/** Helper method - indicates that a foreign key row continues a key. Compares the primary table as well as the
+	 *  name since unnamed keys have a NULL name, and the first column always starts another key.
+	 */
+	private static boolean isSameKey(final ForeignKey value, final ResultSet rs) throws SQLException
+	{
+		return Objects.equals(value.name, rs.getString(12)) &&
+			Objects.equals(value.pkSchema, rs.getString(2)) && Objects.equals(value.pkTable, rs.getString(3)) &&
+			(1 != rs.getShort(9));
+	}
+
+	/** Helper method - indicates that the driver does not support the metadata call (ODBC "IM" SQL state). */
+	private static boolean isNotSupported(final SQLException ex)
+	{
+		var state = ex.getSQLState();
+
+		return (null != state) && state.startsWith("IM");
+	}
+
+	/** Receives all the metadata of a single table. */
+	@FunctionalInterface
+	static interface TableConsumer
+	{
+		public void accept(List<Column> columns, List<Index> indexes, List<PrimaryKey> primaryKeys,
+			List<ForeignKey> importedKeys, List<ForeignKey> exportedKeys);
+	}
+
 	@FunctionalInterface
 	private static interface SQLFunction<T, R>
 	{
 		public R apply(T value) throws SQLException;
 	}
+
+	@FunctionalInterface
+	private static interface MetadataFunction<R>
+	{
+		public R apply(DatabaseMetaData metadata, String catalog) throws SQLException;
+	}
+
+	/** Holds the connection, <I>DatabaseMetaData</I>, and catalog of a run plus the time spent in each kind of call. */
+	public class Session implements AutoCloseable
+	{
+		private final Connection connection;
+		private final DatabaseMetaData metadata;
+		private final String catalog;
+		private final Map<String, Timing> timings = new TreeMap<>();
+
+		private Session(final Connection connection) throws SQLException
+		{
+			this.connection = connection;
+			try
+			{
+				metadata = connection.getMetaData();
+				catalog = connection.getCatalog();
+			}
+			catch (final SQLException ex)
+			{
+				connection.close();
+				throw ex;
+			}
+		}
+
+		/** Accessor method - gets the catalog of the connection. */
+		public String getCatalog() { return catalog; }
+
+		/** Accessor method - gets a copy of the timings of the calls made so far, keyed by call name. */
+		public synchronized Map<String, Timing> getTimings() { return new TreeMap<>(timings); }
+
+		private synchronized <T> T call(final String name, final MetadataFunction<T> fx) throws SQLException
+		{
+			final long start = System.nanoTime();
+			try { return fx.apply(metadata, catalog); }
+			finally { add(name, System.nanoTime() - start); }
+		}
+
+		private synchronized void add(final String name, final long elapsed)
+		{
+			timings.computeIfAbsent(name, k -> new Timing()).add(elapsed);
+		}
+
+		/** Releases the connection. Subsequent calls of the <I>DBMetadata</I> check out their own connections. */
+		@Override
+		public void close() throws SQLException
+		{
+			synchronized (DBMetadata.this)
+			{
+				if (this == session)
+					session = null;
+			}
+
+			synchronized (this) { connection.close(); }
+		}
+
+		/** Lists the timings, one call per line. */
+		@Override
+		public synchronized String toString()
+		{
+			var o = new StringBuilder();
+			timings.forEach((k, v) -> o.append(k).append(": ").append(v).append('\n'));
+
+			return o.toString();
+		}
+	}
+
+	/** Number of calls and the elapsed time of a kind of metadata call. */
+	public static class Timing
+	{
+		private long calls = 0L;
+		private long nanos = 0L;
+		private long maxNanos = 0L;
+
+		private void add(final long elapsed)
+		{
+			calls++;
+			nanos+= elapsed;
+			maxNanos = Math.max(maxNanos, elapsed);
+		}
+
+		public long getCalls() { return calls; }
+		public long getMillis() { return nanos / 1000000L; }
+		public long getMaxMillis() { return maxNanos / 1000000L; }
+
+		@Override
+		public String toString()
+		{
+			return calls + " calls in " + getMillis() + " ms (max " + getMaxMillis() + " ms)";
+		}
+	}
 }
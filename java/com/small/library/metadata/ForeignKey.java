@@ -21,7 +21,9 @@ public class ForeignKey implements Serializable
 
 	public final String name;
 	public final String pkName;
+	public final String pkSchema;
 	public final String pkTable;
+	public final String fkSchema;
 	public final String fkTable;
 	public final short updateRule;
 	public final short deleteRule;
@@ -32,7 +34,9 @@ public class ForeignKey implements Serializable
 
 	public ForeignKey(final ResultSet rs) throws SQLException
 	{
+		pkSchema = rs.getString(2);
 		pkTable = rs.getString(3);
+		fkSchema = rs.getString(6);
 		fkTable = rs.getString(7);
 		updateRule = rs.getShort(10);
 		deleteRule = rs.getShort(11);
@@ -0,0 +1,395 @@
+package com.small.library.metadata;
+
+import java.sql.*;
+import java.util.*;
+
+/***************************************************************************************
+*
+*	Provides the cursors that <I>DBMetadata</I> reads the keys and indexes from. The
+*	default methods call the JDBC <I>DatabaseMetaData</I>. Vendor implementations
+*	replace the generic, and often slow, driver queries with set-based catalog queries
+*	whose columns are aliased to the same layout as the matching <I>DatabaseMetaData</I>
+*	call, so that the same <I>PrimaryKey</I>, <I>ForeignKey</I>, and <I>Index</I>
+*	objects are filled from either.
+*
+*	Additional providers can be registered with <I>java.util.ServiceLoader</I> and take
+*	precedence over the built-in ones. Set the system property
+*	"small.library.metadata.jdbc" to <CODE>true</CODE> to always use the driver.
+*
+*	@author David Small
+*	@version 4.0
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public interface MetadataProvider
+{
+	public static final String PROPERTY_JDBC = "small.library.metadata.jdbc";
+
+	/** Calls the JDBC driver for everything. */
+	public static final MetadataProvider JDBC = new MetadataProvider() {
+		@Override
+		public boolean supports(final DatabaseMetaData metadata) { return true; }
+	};
+
+	/** Indicates whether the provider can read the catalog of the database. */
+	public boolean supports(DatabaseMetaData metadata) throws SQLException;
+
+	/** Gets the primary key columns in the layout of <I>DatabaseMetaData.getPrimaryKeys</I>.
+		@param schema schema name pattern. <CODE>null</CODE> for all schemas.
+		@param table table name. <CODE>null</CODE> for all tables.
+	*/
+	public default ResultSet getPrimaryKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+		throws SQLException
+	{
+		return metadata.getPrimaryKeys(catalog, schema, table);
+	}
+
+	/** Gets the foreign key columns of the referencing tables in the layout of <I>DatabaseMetaData.getImportedKeys</I>.
+		@param schema schema name pattern. <CODE>null</CODE> for all schemas.
+		@param table table name. <CODE>null</CODE> for all tables.
+	*/
+	public default ResultSet getImportedKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+		throws SQLException
+	{
+		return metadata.getImportedKeys(catalog, schema, table);
+	}
+
+	/** Gets the foreign key columns of the referenced tables in the layout of <I>DatabaseMetaData.getExportedKeys</I>.
+		@param schema schema name pattern. <CODE>null</CODE> for all schemas.
+		@param table table name. <CODE>null</CODE> for all tables.
+	*/
+	public default ResultSet getExportedKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+		throws SQLException
+	{
+		return metadata.getExportedKeys(catalog, schema, table);
+	}
+
+	/** Gets all the index columns, with approximate statistics, in the layout of <I>DatabaseMetaData.getIndexInfo</I>.
+		@param schema schema name pattern. <CODE>null</CODE> for all schemas.
+		@param table table name. <CODE>null</CODE> for all tables.
+	*/
+	public default ResultSet getIndexInfo(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+		throws SQLException
+	{
+		return metadata.getIndexInfo(catalog, schema, table, false, true);
+	}
+
+	/** Indicates whether a failed catalog query is retried with the JDBC driver, i.e. the query was refused for lack
+		of privileges or a missing catalog table or function. Other failures, e.g. a lost connection, are thrown.
+	*/
+	public default boolean isFallback(final SQLException ex) { return false; }
+
+	/** Finds the provider of the database. Registered providers are checked before the built-in ones.
+		Falls back to the JDBC driver.
+	*/
+	public static MetadataProvider of(final DatabaseMetaData metadata) throws SQLException
+	{
+		if (Boolean.getBoolean(PROPERTY_JDBC))
+			return JDBC;
+
+		for (var o : ServiceLoader.load(MetadataProvider.class))
+			if (o.supports(metadata)) return o;
+
+		for (var o : List.of(new Redshift(), new PostgreSQL(), new MySQL()))
+			if (o.supports(metadata)) return o;
+
+		return JDBC;
+	}
+
+	/** Base class of the providers that run catalog queries. */
+	public static abstract class Catalog implements MetadataProvider
+	{
+		/** Helper method - gets the lower case name of the database product. Empty if not available. */
+		protected static String getProduct(final DatabaseMetaData metadata) throws SQLException
+		{
+			var o = metadata.getDatabaseProductName();
+
+			return (null != o) ? o.toLowerCase() : "";
+		}
+
+		/** Helper method - indicates whether the SQL state of the failure is one of the states. */
+		protected static boolean hasState(final SQLException ex, final String... states)
+		{
+			var state = ex.getSQLState();
+
+			return (null != state) && Arrays.asList(states).contains(state);
+		}
+
+		/** Helper method - runs a catalog query. The statement is closed with the returned cursor.
+			@param sql the query up to and including its WHERE clause.
+			@param orderBy the columns of the ORDER BY clause.
+			@param filters pairs of a condition with a single parameter and its value. Conditions whose value
+				is <CODE>null</CODE> are skipped.
+		*/
+		protected static ResultSet query(final DatabaseMetaData metadata, final String sql, final String orderBy, final String... filters)
+			throws SQLException
+		{
+			var o = new StringBuilder(sql);
+			var values = new ArrayList<String>(filters.length / 2);
+			for (int i = 0; i < filters.length; i+= 2)
+			{
+				if (null == filters[i + 1]) continue;
+
+				o.append(" AND ").append(filters[i]);
+				values.add(filters[i + 1]);
+			}
+			o.append(" ORDER BY ").append(orderBy);
+
+			var stmt = metadata.getConnection().prepareStatement(o.toString());
+			try
+			{
+				for (int i = 0; i < values.size(); i++)
+					stmt.setString(i + 1, values.get(i));
+
+				var rs = stmt.executeQuery();
+				stmt.closeOnCompletion();
+
+				return rs;
+			}
+			catch (final SQLException ex)
+			{
+				stmt.close();
+				throw ex;
+			}
+		}
+	}
+
+	/** Reads pg_catalog directly. The key columns are expanded with generate_series rather than unnest so
+	    that the same queries run on the leader node of Redshift.
+	*/
+	public static class PostgreSQL extends Catalog
+	{
+		/** Joins the numbers of the key columns, 1 to the maximum number of columns in a key. */
+		private static final String KEY_POSITIONS = "(SELECT generate_series(1, 32) AS i) k";
+
+		public static final String PRIMARY_KEYS = "SELECT CAST(NULL AS varchar) AS TABLE_CAT, n.nspname AS TABLE_SCHEM, c.relname AS TABLE_NAME, " +
+			"a.attname AS COLUMN_NAME, k.i AS KEY_SEQ, con.conname AS PK_NAME " +
+			"FROM pg_catalog.pg_constraint con " +
+			"INNER JOIN pg_catalog.pg_class c ON c.oid = con.conrelid " +
+			"INNER JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace " +
+			"INNER JOIN " + KEY_POSITIONS + " ON k.i <= array_upper(con.conkey, 1) " +
+			"INNER JOIN pg_catalog.pg_attribute a ON a.attrelid = con.conrelid AND a.attnum = con.conkey[k.i] " +
+			"WHERE con.contype = 'p'";
+
+		public static final String FOREIGN_KEYS = "SELECT CAST(NULL AS varchar) AS PKTABLE_CAT, pn.nspname AS PKTABLE_SCHEM, pc.relname AS PKTABLE_NAME, pa.attname AS PKCOLUMN_NAME, " +
+			"CAST(NULL AS varchar) AS FKTABLE_CAT, fn.nspname AS FKTABLE_SCHEM, fc.relname AS FKTABLE_NAME, fa.attname AS FKCOLUMN_NAME, " +
+			"k.i AS KEY_SEQ, " + rule("con.confupdtype") + " AS UPDATE_RULE, " + rule("con.confdeltype") + " AS DELETE_RULE, " +
+			"con.conname AS FK_NAME, pk.conname AS PK_NAME, " +
+			"CASE WHEN NOT con.condeferrable THEN " + DatabaseMetaData.importedKeyNotDeferrable +
+				" WHEN con.condeferred THEN " + DatabaseMetaData.importedKeyInitiallyDeferred +
+				" ELSE " + DatabaseMetaData.importedKeyInitiallyImmediate + " END AS DEFERRABILITY " +
+			"FROM pg_catalog.pg_constraint con " +
+			"INNER JOIN pg_catalog.pg_class fc ON fc.oid = con.conrelid " +
+			"INNER JOIN pg_catalog.pg_namespace fn ON fn.oid = fc.relnamespace " +
+			"INNER JOIN pg_catalog.pg_class pc ON pc.oid = con.confrelid " +
+			"INNER JOIN pg_catalog.pg_namespace pn ON pn.oid = pc.relnamespace " +
+			"INNER JOIN " + KEY_POSITIONS + " ON k.i <= array_upper(con.conkey, 1) " +
+			"INNER JOIN pg_catalog.pg_attribute fa ON fa.attrelid = con.conrelid AND fa.attnum = con.conkey[k.i] " +
+			"INNER JOIN pg_catalog.pg_attribute pa ON pa.attrelid = con.confrelid AND pa.attnum = con.confkey[k.i] " +
+			"LEFT OUTER JOIN pg_catalog.pg_constraint pk ON pk.conrelid = con.confrelid AND pk.contype = 'p' " +
+			"WHERE con.contype = 'f'";
+
+		/** Expression indexes have no attribute so their definition is used as the column name. The int2vector columns are zero-based. */
+		public static final String INDEXES = "SELECT CAST(NULL AS varchar) AS TABLE_CAT, n.nspname AS TABLE_SCHEM, c.relname AS TABLE_NAME, " +
+			"NOT x.indisunique AS NON_UNIQUE, CAST(NULL AS varchar) AS INDEX_QUALIFIER, ci.relname AS INDEX_NAME, " +
+			"CASE WHEN x.indisclustered THEN " + DatabaseMetaData.tableIndexClustered +
+				" WHEN am.amname = 'hash' THEN " + DatabaseMetaData.tableIndexHashed +
+				" ELSE " + DatabaseMetaData.tableIndexOther + " END AS TYPE, " +
+			"k.i AS ORDINAL_POSITION, COALESCE(a.attname, pg_catalog.pg_get_indexdef(x.indexrelid, k.i, false)) AS COLUMN_NAME, " +
+			"CASE WHEN am.amname = 'btree' THEN CASE WHEN (x.indoption[k.i - 1] & 1) = 1 THEN 'D' ELSE 'A' END END AS ASC_OR_DESC, " +
+			"CAST(LEAST(GREATEST(ci.reltuples, 0), 2147483647) AS integer) AS CARDINALITY, ci.relpages AS PAGES, " +
+			"pg_catalog.pg_get_expr(x.indpred, x.indrelid) AS FILTER_CONDITION " +
+			"FROM pg_catalog.pg_index x " +
+			"INNER JOIN pg_catalog.pg_class c ON c.oid = x.indrelid " +
+			"INNER JOIN pg_catalog.pg_class ci ON ci.oid = x.indexrelid " +
+			"INNER JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace " +
+			"INNER JOIN pg_catalog.pg_am am ON am.oid = ci.relam " +
+			"INNER JOIN " + KEY_POSITIONS + " ON k.i <= x.indnatts " +
+			"LEFT OUTER JOIN pg_catalog.pg_attribute a ON a.attrelid = x.indrelid AND a.attnum = x.indkey[k.i - 1] " +
+			"WHERE TRUE";
+
+		@Override
+		public boolean supports(final DatabaseMetaData metadata) throws SQLException
+		{
+			return getProduct(metadata).contains("postgres");
+		}
+
+		/** Insufficient privilege, undefined table, and undefined function. */
+		@Override
+		public boolean isFallback(final SQLException ex)
+		{
+			return hasState(ex, "42501", "42P01", "42883");
+		}
+
+		@Override
+		public ResultSet getPrimaryKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			return query(metadata, PRIMARY_KEYS, "n.nspname, c.relname, k.i", "n.nspname LIKE ?", schema, "c.relname = ?", table);
+		}
+
+		@Override
+		public ResultSet getImportedKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			return query(metadata, FOREIGN_KEYS, "pn.nspname, pc.relname, con.conname, k.i", "fn.nspname LIKE ?", schema, "fc.relname = ?", table);
+		}
+
+		@Override
+		public ResultSet getExportedKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			return query(metadata, FOREIGN_KEYS, "fn.nspname, fc.relname, con.conname, k.i", "pn.nspname LIKE ?", schema, "pc.relname = ?", table);
+		}
+
+		@Override
+		public ResultSet getIndexInfo(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			return query(metadata, INDEXES, "n.nspname, c.relname, NOT x.indisunique, ci.relname, k.i", "n.nspname LIKE ?", schema, "c.relname = ?", table);
+		}
+
+		/** Helper method - maps a pg_constraint action code to the <I>DatabaseMetaData</I> rule. */
+		private static String rule(final String column)
+		{
+			return "CASE " + column +
+				" WHEN 'c' THEN " + DatabaseMetaData.importedKeyCascade +
+				" WHEN 'r' THEN " + DatabaseMetaData.importedKeyRestrict +
+				" WHEN 'n' THEN " + DatabaseMetaData.importedKeySetNull +
+				" WHEN 'd' THEN " + DatabaseMetaData.importedKeySetDefault +
+				" ELSE " + DatabaseMetaData.importedKeyNoAction + " END";
+		}
+	}
+
+	/** Reads the informational keys from pg_catalog like PostgreSQL. Redshift has no indexes, so the
+	    index call is answered by a query of SVV_TABLE_INFO that returns no rows instead of the driver's.
+	*/
+	public static class Redshift extends PostgreSQL
+	{
+		public static final String INDEXES = "SELECT CAST(NULL AS varchar) AS TABLE_CAT, t.\"schema\" AS TABLE_SCHEM, t.\"table\" AS TABLE_NAME, " +
+			"FALSE AS NON_UNIQUE, CAST(NULL AS varchar) AS INDEX_QUALIFIER, CAST(NULL AS varchar) AS INDEX_NAME, " +
+			DatabaseMetaData.tableIndexOther + " AS TYPE, 0 AS ORDINAL_POSITION, CAST(NULL AS varchar) AS COLUMN_NAME, " +
+			"CAST(NULL AS varchar) AS ASC_OR_DESC, 0 AS CARDINALITY, 0 AS PAGES, CAST(NULL AS varchar) AS FILTER_CONDITION " +
+			"FROM svv_table_info t WHERE FALSE";
+
+		@Override
+		public boolean supports(final DatabaseMetaData metadata) throws SQLException
+		{
+			return getProduct(metadata).contains("redshift");
+		}
+
+		@Override
+		public ResultSet getIndexInfo(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			return query(metadata, INDEXES, "1");
+		}
+	}
+
+	/** Reads information_schema of MySQL and MariaDB. Follows the driver in reporting the database as the catalog,
+	    or as the schema when the driver is configured to use schemas.
+	*/
+	public static class MySQL extends Catalog
+	{
+		@Override
+		public boolean supports(final DatabaseMetaData metadata) throws SQLException
+		{
+			var product = getProduct(metadata);
+
+			return product.contains("mysql") || product.contains("mariadb");
+		}
+
+		/** Access denied (reported as a syntax error or access rule violation) and unknown table. */
+		@Override
+		public boolean isFallback(final SQLException ex)
+		{
+			return hasState(ex, "42000", "42S02");
+		}
+
+		@Override
+		public ResultSet getPrimaryKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			var schemas = metadata.supportsSchemasInTableDefinitions();
+
+			return query(metadata, "SELECT " + database(schemas, "k.TABLE_SCHEMA", "TABLE_") + ", k.TABLE_NAME, k.COLUMN_NAME, " +
+				"k.ORDINAL_POSITION AS KEY_SEQ, k.CONSTRAINT_NAME AS PK_NAME " +
+				"FROM information_schema.KEY_COLUMN_USAGE k WHERE k.CONSTRAINT_NAME = 'PRIMARY'",
+				"k.TABLE_SCHEMA, k.TABLE_NAME, k.ORDINAL_POSITION",
+				filter(schemas, "k.TABLE_SCHEMA"), schemas ? schema : catalog, "k.TABLE_NAME = ?", table);
+		}
+
+		@Override
+		public ResultSet getImportedKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			var schemas = metadata.supportsSchemasInTableDefinitions();
+
+			return query(metadata, foreignKeys(schemas), "k.REFERENCED_TABLE_SCHEMA, k.REFERENCED_TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION",
+				filter(schemas, "k.TABLE_SCHEMA"), schemas ? schema : catalog, "k.TABLE_NAME = ?", table);
+		}
+
+		@Override
+		public ResultSet getExportedKeys(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			var schemas = metadata.supportsSchemasInTableDefinitions();
+
+			return query(metadata, foreignKeys(schemas), "k.TABLE_SCHEMA, k.TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION",
+				filter(schemas, "k.REFERENCED_TABLE_SCHEMA"), schemas ? schema : catalog, "k.REFERENCED_TABLE_NAME = ?", table);
+		}
+
+		@Override
+		public ResultSet getIndexInfo(final DatabaseMetaData metadata, final String catalog, final String schema, final String table)
+			throws SQLException
+		{
+			var schemas = metadata.supportsSchemasInTableDefinitions();
+
+			return query(metadata, "SELECT " + database(schemas, "s.TABLE_SCHEMA", "TABLE_") + ", s.TABLE_NAME, s.NON_UNIQUE = 1 AS NON_UNIQUE, " +
+				"NULL AS INDEX_QUALIFIER, s.INDEX_NAME, " +
+				"CASE s.INDEX_TYPE WHEN 'HASH' THEN " + DatabaseMetaData.tableIndexHashed + " ELSE " + DatabaseMetaData.tableIndexOther + " END AS TYPE, " +
+				"s.SEQ_IN_INDEX AS ORDINAL_POSITION, s.COLUMN_NAME, s.COLLATION AS ASC_OR_DESC, " +
+				"LEAST(COALESCE(s.CARDINALITY, 0), 2147483647) AS CARDINALITY, 0 AS PAGES, NULL AS FILTER_CONDITION " +
+				"FROM information_schema.STATISTICS s WHERE TRUE",
+				"s.TABLE_SCHEMA, s.TABLE_NAME, s.NON_UNIQUE, s.INDEX_NAME, s.SEQ_IN_INDEX",
+				filter(schemas, "s.TABLE_SCHEMA"), schemas ? schema : catalog, "s.TABLE_NAME = ?", table);
+		}
+
+		/** Helper method - gets the foreign key query. */
+		private static String foreignKeys(final boolean schemas)
+		{
+			return "SELECT " + database(schemas, "k.REFERENCED_TABLE_SCHEMA", "PKTABLE_") + ", k.REFERENCED_TABLE_NAME AS PKTABLE_NAME, k.REFERENCED_COLUMN_NAME AS PKCOLUMN_NAME, " +
+				database(schemas, "k.TABLE_SCHEMA", "FKTABLE_") + ", k.TABLE_NAME AS FKTABLE_NAME, k.COLUMN_NAME AS FKCOLUMN_NAME, " +
+				"k.ORDINAL_POSITION AS KEY_SEQ, " + rule("r.UPDATE_RULE") + " AS UPDATE_RULE, " + rule("r.DELETE_RULE") + " AS DELETE_RULE, " +
+				"k.CONSTRAINT_NAME AS FK_NAME, r.UNIQUE_CONSTRAINT_NAME AS PK_NAME, " + DatabaseMetaData.importedKeyNotDeferrable + " AS DEFERRABILITY " +
+				"FROM information_schema.KEY_COLUMN_USAGE k " +
+				"INNER JOIN information_schema.REFERENTIAL_CONSTRAINTS r ON r.CONSTRAINT_SCHEMA = k.CONSTRAINT_SCHEMA " +
+					"AND r.CONSTRAINT_NAME = k.CONSTRAINT_NAME AND r.TABLE_NAME = k.TABLE_NAME " +
+				"WHERE k.REFERENCED_TABLE_NAME IS NOT NULL";
+		}
+
+		/** Helper method - gets the catalog and schema columns. The database is reported as one and the other is NULL. */
+		private static String database(final boolean schemas, final String column, final String prefix)
+		{
+			return (schemas ? "NULL" : column) + " AS " + prefix + "CAT, " + (schemas ? column : "NULL") + " AS " + prefix + "SCHEM";
+		}
+
+		/** Helper method - gets the database condition. Schemas are patterns while the catalog is a name. */
+		private static String filter(final boolean schemas, final String column)
+		{
+			return column + (schemas ? " LIKE ?" : " = ?");
+		}
+
+		/** Helper method - maps a referential action to the <I>DatabaseMetaData</I> rule. */
+		private static String rule(final String column)
+		{
+			return "CASE " + column +
+				" WHEN 'CASCADE' THEN " + DatabaseMetaData.importedKeyCascade +
+				" WHEN 'RESTRICT' THEN " + DatabaseMetaData.importedKeyRestrict +
+				" WHEN 'SET NULL' THEN " + DatabaseMetaData.importedKeySetNull +
+				" WHEN 'SET DEFAULT' THEN " + DatabaseMetaData.importedKeySetDefault +
+				" ELSE " + DatabaseMetaData.importedKeyNoAction + " END";
+		}
+	}
+}
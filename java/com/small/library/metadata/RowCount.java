@@ -0,0 +1,28 @@
+package com.small.library.metadata;
+
+/***************************************************************************************
+*
+*	Value object that holds the number of rows in a table and whether the number
+*	is an estimate from the database's statistics or an exact count.
+*
+*	@author David Small
+*	@version 2.1
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public class RowCount
+{
+	public final long rows;
+	public final boolean estimated;
+
+	public RowCount(final long rows, final boolean estimated)
+	{
+		this.rows = rows;
+		this.estimated = estimated;
+	}
+
+	/** Formats the rows with grouping separators of the default locale followed by whether they are estimated. */
+	@Override
+	public String toString() { return String.format("%,d", rows) + (estimated ? " (estimated)" : " (exact)"); }
+}
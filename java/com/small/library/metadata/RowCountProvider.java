@@ -0,0 +1,171 @@
+package com.small.library.metadata;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.sql.DataSource;
+
+/***************************************************************************************
+*
+*	Provides the number of rows in a list of tables. Implementations either read the
+*	planner statistics that the database already keeps, which is nearly free, or run
+*	exact counts concurrently.
+*
+*	@author David Small
+*	@version 2.1
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public interface RowCountProvider
+{
+	public static final int TIMEOUT_DEFAULT = 90;	// Seconds per exact count. Some counts just take too long.
+
+	/** Counts the rows of the tables. Tables that could not be counted are absent from the result. */
+	public Map<Table, RowCount> count(List<Table> tables) throws SQLException;
+
+	/** Creates a provider that runs exact counts concurrently.
+		@param dataSource should be pooled with at least <CODE>threads</CODE> connections.
+		@param threads maximum number of counts run at once.
+	*/
+	public static RowCountProvider exact(final DataSource dataSource, final int threads)
+	{
+		return new Exact(dataSource, threads, TIMEOUT_DEFAULT);
+	}
+
+	/** Creates a provider that reads the statistics of the database product. Falls back to exact counts
+	    for products without a statistics provider.
+	*/
+	public static RowCountProvider estimated(final DataSource dataSource, final int threads) throws SQLException
+	{
+		try (var connection = dataSource.getConnection())
+		{
+			var product = connection.getMetaData().getDatabaseProductName().toLowerCase();
+			if (product.contains("redshift"))
+				return new Statistics(dataSource, Statistics.REDSHIFT);
+			if (product.contains("postgres"))
+				return new Statistics(dataSource, Statistics.POSTGRESQL);
+			if (product.contains("mysql") || product.contains("mariadb"))
+				return new Statistics(dataSource, Statistics.MYSQL);
+		}
+
+		return exact(dataSource, threads);
+	}
+
+	/** Runs a SELECT COUNT per table on a bounded pool. Counts that fail or time out are skipped. */
+	public static class Exact implements RowCountProvider
+	{
+		private final DataSource dataSource;
+		private final int threads;
+		private final int timeout;
+
+		public Exact(final DataSource dataSource, final int threads, final int timeout)
+		{
+			this.dataSource = dataSource;
+			this.threads = Math.max(threads, 1);
+			this.timeout = timeout;
+		}
+
+		@Override
+		public Map<Table, RowCount> count(final List<Table> tables) throws SQLException
+		{
+			var o = new IdentityHashMap<Table, RowCount>(tables.size());
+			if (tables.isEmpty()) return o;
+
+			var executor = Executors.newFixedThreadPool(Math.min(threads, tables.size()));
+			try
+			{
+				var futures = new ArrayList<Future<Long>>(tables.size());
+				for (var table : tables) futures.add(executor.submit(() -> count(table)));
+
+				for (int i = 0; i < tables.size(); i++)
+				{
+					try
+					{
+						var rows = futures.get(i).get();
+						if (null != rows) o.put(tables.get(i), new RowCount(rows, false));
+					}
+					catch (final ExecutionException ex) { /** Skip the table. */ }
+				}
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw new SQLException(ex);
+			}
+			finally { executor.shutdownNow(); }
+
+			return o;
+		}
+
+		/** Helper method - counts a single table on its own connection. */
+		private Long count(final Table table)
+		{
+			var name = (null != table.schema) ? table.schema + "." + table.name : table.name;
+			try (var connection = dataSource.getConnection();
+			     var stmt = connection.createStatement())
+			{
+				stmt.setQueryTimeout(timeout);
+				try (var rs = stmt.executeQuery("SELECT COUNT(1) FROM " + name))
+				{
+					return rs.next() ? rs.getLong(1) : 0L;
+				}
+			}
+			catch (final SQLException ex) { return null; }	// Assume a timeout or that the database is unavailable.
+		}
+	}
+
+	/** Reads the row estimates from a single catalog query that returns the schema, table name, and rows. */
+	public static class Statistics implements RowCountProvider
+	{
+		/** Planner statistics. Tables never analyzed have negative estimates. */
+		public static final String POSTGRESQL = "SELECT n.nspname, c.relname, c.reltuples FROM pg_class c " +
+			"INNER JOIN pg_namespace n ON n.oid = c.relnamespace WHERE c.relkind IN ('r', 'p', 'm') AND c.reltuples >= 0";
+
+		/** Rows of each table summed across the slices. pg_class.reltuples is not maintained on Redshift. */
+		public static final String REDSHIFT = "SELECT \"schema\", \"table\", tbl_rows FROM svv_table_info WHERE tbl_rows IS NOT NULL";
+
+		/** InnoDB statistics of the current database. */
+		public static final String MYSQL = "SELECT TABLE_SCHEMA, TABLE_NAME, TABLE_ROWS FROM information_schema.TABLES " +
+			"WHERE TABLE_SCHEMA = DATABASE() AND TABLE_ROWS IS NOT NULL";
+
+		private final DataSource dataSource;
+		private final String sql;
+
+		public Statistics(final DataSource dataSource, final String sql)
+		{
+			this.dataSource = dataSource;
+			this.sql = sql;
+		}
+
+		@Override
+		public Map<Table, RowCount> count(final List<Table> tables) throws SQLException
+		{
+			var keys = new HashMap<String, Long>();
+			var names = new HashMap<String, Long>();	// Only names unique across schemas, for drivers that report the database as the catalog.
+			try (var connection = dataSource.getConnection();
+			     var stmt = connection.createStatement();
+			     var rs = stmt.executeQuery(sql))
+			{
+				while (rs.next())
+				{
+					var name = rs.getString(2);
+					var rows = Math.round(rs.getDouble(3));
+					keys.put(SchemaSnapshot.key(rs.getString(1), name), rows);
+					if (null != names.putIfAbsent(name, rows)) names.put(name, -1L);
+				}
+			}
+
+			var o = new IdentityHashMap<Table, RowCount>(tables.size());
+			for (var table : tables)
+			{
+				var rows = keys.get(SchemaSnapshot.key(table.schema, table.name));
+				if ((null == rows) && (null == table.schema)) rows = names.get(table.name);	// Otherwise a missing table would take the count of another schema's.
+				if ((null != rows) && (0L <= rows)) o.put(table, new RowCount(rows, true));
+			}
+
+			return o;
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package com.small.library.metadata;
+
+import java.util.*;
+
+/***************************************************************************************
+*
+*	Compares two schema snapshots and reports the tables that were added, removed, or
+*	changed. A table is changed when its type, comments, columns, primary key, imported
+*	or exported keys, or indexes differ. Used to regenerate only the resources of the
+*	affected tables.
+*
+*	@author David Small
+*	@version 2.1
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public class SchemaDiff
+{
+	public final List<Table> addedTables;
+	public final List<Table> removedTables;
+	public final List<TableChange> changedTables;
+
+	private final Set<String> affected;	// Keys of the added and changed tables.
+
+	private SchemaDiff(final List<Table> addedTables, final List<Table> removedTables, final List<TableChange> changedTables)
+	{
+		this.addedTables = addedTables;
+		this.removedTables = removedTables;
+		this.changedTables = changedTables;
+
+		affected = new HashSet<>((addedTables.size() + changedTables.size()) * 2);
+		addedTables.forEach(t -> affected.add(SchemaSnapshot.key(t.schema, t.name)));
+		changedTables.forEach(c -> affected.add(SchemaSnapshot.key(c.table.schema, c.table.name)));
+	}
+
+	/** Compares two snapshots.
+		@param before the earlier snapshot, e.g. the persisted one.
+		@param after the current snapshot.
+	*/
+	public static SchemaDiff compare(final SchemaSnapshot before, final SchemaSnapshot after)
+	{
+		var added = new ArrayList<Table>();
+		var removed = new ArrayList<Table>();
+		var changed = new ArrayList<TableChange>();
+		var previous = new HashMap<String, Table>(before.tables.size() * 2);
+		before.tables.forEach(t -> previous.put(SchemaSnapshot.key(t.schema, t.name), t));
+
+		for (var t : after.tables)
+		{
+			var p = previous.get(SchemaSnapshot.key(t.schema, t.name));
+			if (null == p)
+				added.add(t);
+			else
+			{
+				var o = TableChange.compare(before, after, p, t);
+				if (null != o) changed.add(o);
+			}
+		}
+
+		for (var t : before.tables)
+			if (!after.contains(t.schema, t.name))
+				removed.add(t);
+
+		return new SchemaDiff(added, removed, changed);
+	}
+
+	/** Accessor method - indicates that the snapshots are the same. */
+	public boolean isEmpty() { return addedTables.isEmpty() && removedTables.isEmpty() && changedTables.isEmpty(); }
+
+	/** Accessor method - indicates that a table of the current snapshot was added or changed. */
+	public boolean isAffected(final Table table) { return affected.contains(SchemaSnapshot.key(table.schema, table.name)); }
+
+	/** Accessor method - gets the tables of a list that were added or changed, in the order of the list. */
+	public List<Table> getAffectedTables(final List<Table> tables)
+	{
+		return tables.stream().filter(this::isAffected).toList();
+	}
+
+	/** Lists the changes, one table per line. */
+	@Override
+	public String toString()
+	{
+		var o = new StringBuilder();
+		addedTables.forEach(t -> o.append("+ ").append(SchemaSnapshot.key(t.schema, t.name)).append('\n'));
+		removedTables.forEach(t -> o.append("- ").append(SchemaSnapshot.key(t.schema, t.name)).append('\n'));
+		changedTables.forEach(c -> o.append("~ ").append(c).append('\n'));
+
+		return o.toString();
+	}
+
+	/** Value class that describes the changes to a single table. */
+	public static class TableChange
+	{
+		public final Table table;	// The table of the current snapshot.
+		public final boolean definitionChanged;	// Type or comments.
+		public final List<Column> addedColumns;
+		public final List<Column> removedColumns;
+		public final List<Column> changedColumns;	// The current definitions.
+		public final boolean keysChanged;	// Primary, imported, or exported keys.
+		public final boolean indexesChanged;
+
+		private TableChange(final Table table, final boolean definitionChanged,
+			final List<Column> addedColumns, final List<Column> removedColumns, final List<Column> changedColumns,
+			final boolean keysChanged, final boolean indexesChanged)
+		{
+			this.table = table;
+			this.definitionChanged = definitionChanged;
+			this.addedColumns = addedColumns;
+			this.removedColumns = removedColumns;
+			this.changedColumns = changedColumns;
+			this.keysChanged = keysChanged;
+			this.indexesChanged = indexesChanged;
+		}
+
+		/** Helper method - compares a table that is in both snapshots.
+			@return <CODE>null</CODE> if the table did not change.
+		*/
+		private static TableChange compare(final SchemaSnapshot before, final SchemaSnapshot after, final Table previous, final Table table)
+		{
+			var schema = table.schema;
+			var name = table.name;
+			var definitionChanged = !Objects.equals(previous.type, table.type) || !Objects.equals(previous.remarks, table.remarks);
+
+			var columns = new LinkedHashMap<String, String>();
+			var position = 0;
+			for (var c : before.getColumns(schema, name))
+				columns.put(c.name, signature(c, ++position));
+
+			var added = new ArrayList<Column>();
+			var changed = new ArrayList<Column>();
+			position = 0;
+			for (var c : after.getColumns(schema, name))
+			{
+				var o = columns.remove(c.name);
+				position++;
+				if (null == o)
+					added.add(c);
+				else if (!o.equals(signature(c, position)))
+					changed.add(c);
+			}
+
+			var removed = new ArrayList<Column>();
+			if (!columns.isEmpty())
+				before.getColumns(schema, name).stream().filter(c -> columns.containsKey(c.name)).forEach(removed::add);
+
+			var keysChanged = !signature(before.getPrimaryKeys(schema, name), before.getImportedKeys(schema, name), before.getExportedKeys(schema, name))
+				.equals(signature(after.getPrimaryKeys(schema, name), after.getImportedKeys(schema, name), after.getExportedKeys(schema, name)));
+			var indexesChanged = !signature(before.getIndexes(schema, name)).equals(signature(after.getIndexes(schema, name)));
+
+			if (!definitionChanged && added.isEmpty() && removed.isEmpty() && changed.isEmpty() && !keysChanged && !indexesChanged)
+				return null;
+
+			return new TableChange(table, definitionChanged, added, removed, changed, keysChanged, indexesChanged);
+		}
+
+		@Override
+		public String toString()
+		{
+			var o = new StringBuilder(SchemaSnapshot.key(table.schema, table.name)).append(':');
+			if (definitionChanged) o.append(" definition");
+			addedColumns.forEach(c -> o.append(" +").append(c.name));
+			removedColumns.forEach(c -> o.append(" -").append(c.name));
+			changedColumns.forEach(c -> o.append(" ~").append(c.name));
+			if (keysChanged) o.append(" keys");
+			if (indexesChanged) o.append(" indexes");
+
+			return o.toString();
+		}
+	}
+
+	/** Helper method - gets the comparable definition of a column. Includes the ordinal position so that reordered columns are changed. */
+	static String signature(final Column c, final int position)
+	{
+		return position + "|" + c.dataType + "|" + c.typeName + "|" + c.size + "|" + c.decimalDigits + "|" + c.nullable + "|" + c.autoIncrement + "|" + c.remarks;
+	}
+
+	/** Helper method - gets the comparable definition of the keys of a table. Order insensitive. */
+	static String signature(final List<PrimaryKey> primaryKeys, final List<ForeignKey> importedKeys, final List<ForeignKey> exportedKeys)
+	{
+		var o = new StringBuilder();
+		primaryKeys.stream().map(k -> k.name + "|" + k.key).sorted().forEach(k -> o.append(k).append('\n'));
+		o.append('\n');
+		importedKeys.stream().map(SchemaDiff::signature).sorted().forEach(k -> o.append(k).append('\n'));
+		o.append('\n');
+		exportedKeys.stream().map(SchemaDiff::signature).sorted().forEach(k -> o.append(k).append('\n'));
+
+		return o.toString();
+	}
+
+	/** Helper method - gets the comparable definition of a foreign key. */
+	private static String signature(final ForeignKey k)
+	{
+		return k.name + "|" + SchemaSnapshot.key(k.pkSchema, k.pkTable) + k.pks + "|" + SchemaSnapshot.key(k.fkSchema, k.fkTable) + k.fks +
+			"|" + k.updateRule + "|" + k.deleteRule + "|" + k.deferrability;
+	}
+
+	/** Helper method - gets the comparable definition of the indexes of a table. Order insensitive. Ignores the statistics. */
+	static String signature(final List<Index> indexes)
+	{
+		var o = new StringBuilder();
+		indexes.stream()
+			.map(i -> i.name + "|" + i.unique + "|" + i.type + "|" + i.filterCondition + "|" +
+				i.keys.stream().map(k -> k.name + " " + k.sort).toList())
+			.sorted()
+			.forEach(i -> o.append(i).append('\n'));
+
+		return o.toString();
+	}
+}
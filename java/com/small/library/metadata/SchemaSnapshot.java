@@ -0,0 +1,185 @@
+package com.small.library.metadata;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+/***************************************************************************************
+*
+*	Data collection that holds the columns, keys, and indexes of every table in a
+*	catalog/schema. Loaded with a handful of catalog-wide metadata calls by
+*	<I>DBMetadata.snapshot</I> and indexed in memory by schema and table name.
+*	Can be persisted to disk and reloaded so that generators can run without
+*	a database.
+*
+*	@author David Small
+*	@version 2.1
+*	@since 10/17/2026
+*
+***************************************************************************************/
+
+public class SchemaSnapshot implements Serializable
+{
+	private static final long serialVersionUID = 1L;
+
+	public final String catalog;
+	public final String schemaPattern;
+	public final List<Table> tables;
+
+	private final Map<String, Entry> entries;
+
+	public SchemaSnapshot(final String catalog, final String schemaPattern, final List<Table> tables)
+	{
+		this.catalog = catalog;
+		this.schemaPattern = schemaPattern;
+		this.tables = tables;
+
+		entries = new LinkedHashMap<>(tables.size() * 2);
+		tables.forEach(t -> entries.put(key(t.schema, t.name), new Entry()));
+	}
+
+	/** Helper method - gets the lookup key of a table. */
+	public static String key(final String schema, final String table)
+	{
+		return ((null != schema) ? schema : "") + "." + table;
+	}
+
+	/** Accessor method - gets a hash of the tables and their columns, keys, and indexes. Used to detect a stale persisted
+	    snapshot. The statistics of the indexes are not reflected.
+	*/
+	public String getFingerprint()
+	{
+		final StringBuilder o = new StringBuilder();
+		for (final Table t : tables)
+		{
+			final Entry e = entry(t.schema, t.name);
+			o.append(key(t.schema, t.name)).append('|').append(t.type).append('|').append(t.remarks).append('\n');
+			int position = 0;
+			for (final Column c : e.columns)
+				o.append('\t').append(c.name).append('|').append(SchemaDiff.signature(c, ++position)).append('\n');
+			o.append(SchemaDiff.signature(e.primaryKeys, e.importedKeys, e.exportedKeys));
+			o.append(SchemaDiff.signature(e.indexes));
+		}
+
+		return DigestUtils.sha256Hex(o.toString());
+	}
+
+	/** Accessor method - gets the tables that match the name pattern and types. Mirrors the filtering
+	    of <I>DatabaseMetaData.getTables</I> so that a persisted snapshot can stand in for the database.
+		@param tableNamePattern SQL LIKE pattern. <CODE>null</CODE> matches all tables.
+		@param types table types. <CODE>null</CODE> or empty matches all types.
+	*/
+	public List<Table> getTables(final String tableNamePattern, final String... types)
+	{
+		final Pattern pattern = (null != tableNamePattern) ? toPattern(tableNamePattern) : null;
+		final Set<String> types_ = ((null != types) && (0 < types.length)) ? Set.of(types) : null;
+
+		return tables.stream()
+			.filter(t -> (null == pattern) || pattern.matcher(t.name).matches())
+			.filter(t -> (null == types_) || types_.contains(t.type))
+			.toList();
+	}
+
+	/** Helper method - converts a SQL LIKE pattern to a regular expression. */
+	private static Pattern toPattern(final String value)
+	{
+		final StringBuilder o = new StringBuilder();
+		for (final char c : value.toCharArray())
+		{
+			if ('%' == c) o.append(".*");
+			else if ('_' == c) o.append('.');
+			else o.append(Pattern.quote(String.valueOf(c)));
+		}
+
+		return Pattern.compile(o.toString());
+	}
+
+	/** Helper method - gets the name of the file used to persist the snapshot of a database and schema.
+		@param url JDBC URL of the database.
+		@param schemaPattern schema name pattern of the snapshot.
+	*/
+	public static String fileName(final String url, final String schemaPattern)
+	{
+		return "metadata-" + DigestUtils.sha1Hex(url + "|" + schemaPattern) + ".ser.gz";
+	}
+
+	/** Helper method - gets the name of the file used to persist the snapshot that a generator last generated from.
+	    Each generator keeps its own baseline so that one generator's run does not hide the changes from another.
+		@param url JDBC URL of the database.
+		@param schemaPattern schema name pattern of the snapshot.
+		@param generator class name of the generator.
+	*/
+	public static String fileName(final String url, final String schemaPattern, final String generator)
+	{
+		return "metadata-" + DigestUtils.sha1Hex(url + "|" + schemaPattern + "|" + generator) + ".ser.gz";
+	}
+
+	/** Action method - persists the snapshot as a compressed serialized object. Writes to a temporary file and then
+	    moves it into place so that an interrupted write leaves the previous file intact.
+	*/
+	public void write(final File file) throws IOException
+	{
+		var temp = File.createTempFile("metadata-", ".tmp", file.getAbsoluteFile().getParentFile());
+		try
+		{
+			try (var out = new ObjectOutputStream(new GZIPOutputStream(new BufferedOutputStream(new FileOutputStream(temp)), 1 << 16)))
+			{
+				out.writeObject(this);
+			}
+
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		finally { temp.delete(); }	// Already gone once moved.
+	}
+
+	/** Action method - reads a persisted snapshot. Use <I>DBMetadata.load</I> to serve tables from it. */
+	public static SchemaSnapshot read(final File file) throws IOException
+	{
+		try (var in = new ObjectInputStream(new GZIPInputStream(new BufferedInputStream(new FileInputStream(file)), 1 << 16)))
+		{
+			return (SchemaSnapshot) in.readObject();
+		}
+		catch (final ClassNotFoundException ex) { throw new IOException(ex); }
+	}
+
+	/** Accessor method - indicates whether the table was loaded into the snapshot. */
+	public boolean contains(final String schema, final String table) { return entries.containsKey(key(schema, table)); }
+
+	public List<Column> getColumns(final String schema, final String table) { return entry(schema, table).columns; }
+	public List<PrimaryKey> getPrimaryKeys(final String schema, final String table) { return entry(schema, table).primaryKeys; }
+	public List<ForeignKey> getImportedKeys(final String schema, final String table) { return entry(schema, table).importedKeys; }
+	public List<ForeignKey> getExportedKeys(final String schema, final String table) { return entry(schema, table).exportedKeys; }
+	public List<Index> getIndexes(final String schema, final String table) { return entry(schema, table).indexes; }
+
+	/** Helper method - gets the table entry or <CODE>null</CODE> if the table is not in the snapshot.
+	    Used by the loader to skip rows for tables that are outside of the snapshot.
+	*/
+	Entry find(final String schema, final String table) { return entries.get(key(schema, table)); }
+
+	private Entry entry(final String schema, final String table)
+	{
+		final Entry o = find(schema, table);
+		if (null == o)
+			throw new IllegalArgumentException("The table '" + key(schema, table) + "' is not in the snapshot.");
+
+		return o;
+	}
+
+	/** Value class that holds the metadata of a single table. */
+	static class Entry implements Serializable
+	{
+		private static final long serialVersionUID = 1L;
+
+		final List<Column> columns = new ArrayList<>();
+		final List<PrimaryKey> primaryKeys = new ArrayList<>();
+		final List<ForeignKey> importedKeys = new ArrayList<>();
+		final List<ForeignKey> exportedKeys = new ArrayList<>();
+		final List<Index> indexes = new ArrayList<>();
+	}
+}
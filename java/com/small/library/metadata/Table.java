@@ -32,13 +32,15 @@ public class Table implements Serializable
 	public final boolean system;
 	public final boolean unknown;
 	public final String remarks;
-	private final DBMetadata metadata;
+	private transient DBMetadata metadata;	// Reattached when loaded from a persisted snapshot.
 
-	// Lazy loaded
-	private List<Column> columns = null; 
-	private List<Index> indexes = null;
-	private List<ForeignKey> importedKeys = null;
-	private List<ForeignKey> exportedKeys = null;
+	// Lazy loaded. Volatile, and set under the table's lock, so that parallel generators
+	// that share the table load each attribute only once.
+	private transient volatile List<Column> columns = null; 
+	private transient volatile List<Index> indexes = null;
+	private transient volatile List<PrimaryKey> primaryKeys = null;
+	private transient volatile List<ForeignKey> importedKeys = null;
+	private transient volatile List<ForeignKey> exportedKeys = null;
 
 	public Table(final ResultSet rs, final DBMetadata metadata) throws SQLException
 	{
@@ -56,25 +58,74 @@ public class Table implements Serializable
 		this.metadata = metadata;
 	}
 
+	/** Mutator method - attaches a deserialized table to the metadata loader that serves its columns, keys, and indexes. */
+	void attach(final DBMetadata metadata) { this.metadata = metadata; }
+
 	public List<Column> getColumns() throws SQLException
 	{
-		return (null != columns) ? columns : (columns = metadata.getColumns(this));
+		var o = columns;
+		if (null == o)
+			synchronized (this) { if (null == (o = columns)) columns = o = metadata.getColumns(this); }
+
+		return o;
 	}
 
 	public List<Index> getIndexes() throws SQLException
 	{
-		return (null != indexes) ? indexes : (indexes = metadata.getIndexes(this));
+		var o = indexes;
+		if (null == o)
+			synchronized (this) { if (null == (o = indexes)) indexes = o = metadata.getIndexes(this); }
+
+		return o;
 	}
 
-	public List<PrimaryKey> getPrimaryKeys() throws SQLException { return metadata.getPrimaryKeys(this); }
+	public List<PrimaryKey> getPrimaryKeys() throws SQLException
+	{
+		var o = primaryKeys;
+		if (null == o)
+			synchronized (this) { if (null == (o = primaryKeys)) primaryKeys = o = metadata.getPrimaryKeys(this); }
+
+		return o;
+	}
 
 	public List<ForeignKey> getImportedKeys() throws SQLException
 	{
-		return (null != importedKeys) ? importedKeys : (importedKeys = metadata.getImportedKeys(this));
+		var o = importedKeys;
+		if (null == o)
+			synchronized (this) { if (null == (o = importedKeys)) importedKeys = o = metadata.getImportedKeys(this); }
+
+		return o;
 	}
 
 	public List<ForeignKey> getExportedKeys() throws SQLException
 	{
-		return (null != exportedKeys) ? exportedKeys : (exportedKeys = metadata.getExportedKeys(this));
+		var o = exportedKeys;
+		if (null == o)
+			synchronized (this) { if (null == (o = exportedKeys)) exportedKeys = o = metadata.getExportedKeys(this); }
+
+		return o;
+	}
+
+	/** Loads all the columns, keys, and indexes of the table that are not yet loaded on a single connection.
+	 *  Subsequent accessor calls are served from memory.
+	 * 
+	 * @return this table.
+	 * @throws SQLException
+	 */
+	public synchronized Table preload() throws SQLException
+	{
+		final boolean[] loaded = { null != columns, null != indexes, null != primaryKeys, null != importedKeys, null != exportedKeys };
+		if (loaded[0] && loaded[1] && loaded[2] && loaded[3] && loaded[4])
+			return this;
+
+		metadata.preload(this, loaded, (c, i, p, im, ex) -> {
+			if (null == columns) columns = c;
+			if (null == indexes) indexes = i;
+			if (null == primaryKeys) primaryKeys = p;
+			if (null == importedKeys) importedKeys = im;
+			if (null == exportedKeys) exportedKeys = ex;
+		});
+
+		return this;
 	}
 }
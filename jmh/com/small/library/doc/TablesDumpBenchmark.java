@@ -0,0 +1,54 @@
+package com.small.library.doc;
+
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.small.library.generator.InMemoryDatabase;
+import com.small.library.metadata.Table;
+
+/** Measures the SQL data dump of a table in the embedded database, including the cursor read and the
+ *  formatting of each value. The output is discarded so that disk speed is not measured.
+ *
+ * @author smalleyd
+ * @version 4.0
+ * @since 10/17/2026
+ *
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TablesDumpBenchmark
+{
+	@Param({ "10000" })
+	public int rows;
+
+	@Param({ "1", "100" })
+	public int batchSize;
+
+	private DataSource dataSource;
+	private Table table;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		dataSource = InMemoryDatabase.create("dump" + rows, rows);
+		table = InMemoryDatabase.table(dataSource, InMemoryDatabase.TABLE_CUSTOMER).preload();
+	}
+
+	@Benchmark
+	public void generate() throws Exception
+	{
+		try (var writer = new PrintWriter(Writer.nullWriter()))
+		{
+			new TablesDump(writer, table, dataSource, null, TablesDump.FETCH_SIZE_DEFAULT, batchSize).generate();
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package com.small.library.generator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.small.library.metadata.*;
+
+/** Measures the derivation of <I>ColumnInfo</I> objects from column metadata. The columns, keys, and
+ *  indexes are loaded once during setup so that only the per-column naming and type mapping is measured.
+ *
+ * @author smalleyd
+ * @version 4.0
+ * @since 10/17/2026
+ *
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BaseTableBenchmark
+{
+	private BaseTable generator;
+	private List<Column> columns;
+
+	@Setup
+	public void setup() throws Exception
+	{
+		var table = InMemoryDatabase.table(InMemoryDatabase.create("columns", 10), InMemoryDatabase.TABLE_PURCHASE).preload();
+
+		generator = new BaseTable(null, BaseTable.AUTHOR_DEFAULT, table) {
+			@Override public String getOutputFileName(final Table table) { return table.name; }
+			@Override public void generate() {}
+		};
+		columns = generator.getColumns();
+	}
+
+	@Benchmark
+	public ColumnInfo[] getColumnInfo() throws Exception
+	{
+		return generator.getColumnInfo(columns);
+	}
+}
@@ -0,0 +1,100 @@
+package com.small.library.generator;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.time.*;
+
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+import com.small.library.metadata.*;
+
+/** Embedded in-memory database used as the JDBC stand-in by the benchmarks. Holds a customer table
+ *  with a mix of column types and a purchase table that imports the customer key.
+ *
+ * @author smalleyd
+ * @version 4.0
+ * @since 10/17/2026
+ *
+ */
+
+public class InMemoryDatabase
+{
+	public static final String TABLE_CUSTOMER = "CUSTOMER";
+	public static final String TABLE_PURCHASE = "PURCHASE";
+
+	/** Creates, or reuses, a named in-memory database populated with the specified number of customers.
+	 *  Each customer has three purchases.
+	 */
+	public static DataSource create(final String name, final int rows) throws SQLException
+	{
+		var o = new JdbcDataSource();
+		o.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+
+		try (var conn = o.getConnection(); var stmt = conn.createStatement())
+		{
+			stmt.execute("CREATE TABLE IF NOT EXISTS customer (id BIGINT NOT NULL PRIMARY KEY, name VARCHAR(100) NOT NULL, email VARCHAR(200), " +
+				"balance DECIMAL(12,2), active BOOLEAN, created_at TIMESTAMP, birth_date DATE, notes VARCHAR(1000))");
+			stmt.execute("CREATE TABLE IF NOT EXISTS purchase (id BIGINT NOT NULL PRIMARY KEY, customer_id BIGINT NOT NULL, amount DECIMAL(12,2), " +
+				"quantity INT, purchased_at TIMESTAMP, CONSTRAINT fk_purchase_customer FOREIGN KEY (customer_id) REFERENCES customer (id))");
+			stmt.execute("CREATE INDEX IF NOT EXISTS ix_purchase_customer ON purchase (customer_id)");
+
+			try (var rs = stmt.executeQuery("SELECT COUNT(*) FROM customer"))
+			{
+				if (rs.next() && (0 < rs.getInt(1))) return o;
+			}
+
+			populate(conn, rows);
+		}
+
+		return o;
+	}
+
+	/** Gets a table record object backed by its own metadata instance. */
+	public static Table table(final DataSource dataSource, final String name) throws SQLException
+	{
+		return new DBMetadata(dataSource).getTables(name, (String[]) null).get(0);
+	}
+
+	/** Helper method - inserts the customers and their purchases in batches. */
+	private static void populate(final Connection conn, final int rows) throws SQLException
+	{
+		var now = LocalDateTime.of(2026, 1, 1, 12, 0);
+		try (var customers = conn.prepareStatement("INSERT INTO customer VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+		     var purchases = conn.prepareStatement("INSERT INTO purchase VALUES (?, ?, ?, ?, ?)"))
+		{
+			for (int i = 1; i <= rows; i++)
+			{
+				customers.setLong(1, i);
+				customers.setString(2, "Customer's name #" + i);
+				customers.setString(3, (0 == (i % 5)) ? null : "customer" + i + "@example.com");
+				customers.setBigDecimal(4, BigDecimal.valueOf(i * 137L, 2));
+				customers.setBoolean(5, 0 == (i % 2));
+				customers.setTimestamp(6, Timestamp.valueOf(now.minusMinutes(i)));
+				customers.setDate(7, Date.valueOf(LocalDate.of(1970, 1, 1).plusDays(i)));
+				customers.setString(8, "Line one\nLine two with a 'quote' for customer " + i);
+				customers.addBatch();
+
+				for (int j = 0; j < 3; j++)
+				{
+					purchases.setLong(1, (i * 3L) + j);
+					purchases.setLong(2, i);
+					purchases.setBigDecimal(3, BigDecimal.valueOf((i + j) * 99L, 2));
+					purchases.setInt(4, j + 1);
+					purchases.setTimestamp(5, Timestamp.valueOf(now.minusHours(i + j)));
+					purchases.addBatch();
+				}
+
+				if (0 == (i % 1000))
+				{
+					customers.executeBatch();
+					purchases.executeBatch();
+				}
+			}
+
+			customers.executeBatch();
+			purchases.executeBatch();
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.small.library.html;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Measures the rendering of an HTML table with text cells, which is the bulk of the HTML reports. Renders
+ *  directly to the writer, and through an <I>HtmlWriter</I> as <I>DatabaseHtml</I> does.
+ *
+ * @author smalleyd
+ * @version 4.0
+ * @since 10/17/2026
+ *
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableBenchmark
+{
+	@Param({ "1000" })
+	public int rows;
+
+	@Param({ "8" })
+	public int columns;
+
+	private Table table;
+
+	@Setup
+	public void setup()
+	{
+		var o = new ArrayList<TableRow>(rows);
+		for (int i = 0; i < rows; i++)
+		{
+			var cells = new ArrayList<TableCell>(columns);
+			for (int j = 0; j < columns; j++) cells.add(new TableCell("Row " + i + " & column <" + j + ">"));
+			o.add(new TableRow(cells));
+		}
+
+		table = new Table(new TableRows(o));
+	}
+
+	@Benchmark
+	public void create() throws IOException
+	{
+		table.create(Writer.nullWriter());
+	}
+
+	@Benchmark
+	public void createBuffered() throws IOException
+	{
+		var html = new HtmlWriter(Writer.nullWriter());
+		table.create(html);
+		html.flush();
+	}
+}
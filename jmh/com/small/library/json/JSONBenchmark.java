@@ -0,0 +1,124 @@
+package com.small.library.json;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/** Measures the JSON generators against a synthetic configuration. Each class has a mix of string,
+ *  numeric, date, boolean, and nested class fields, and generates every artifact.
+ *
+ * @author smalleyd
+ * @version 4.0
+ * @since 10/17/2026
+ *
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JSONBenchmark
+{
+	@Param({ "20" })
+	public int fields;
+
+	private JSONConfig conf;
+	private JSONClass clazz;
+	private File dir;
+	private PrintStream discard;
+
+	@Setup
+	public void setup() throws IOException
+	{
+		conf = new ObjectMapper().readValue(config(fields), JSONConfig.class);
+		clazz = conf.clazz("Customer");
+		dir = Files.createTempDirectory("json-benchmark").toFile();
+		discard = new PrintStream(OutputStream.nullOutputStream());
+	}
+
+	@TearDown
+	public void tearDown()
+	{
+		for (var f : dir.listFiles()) f.delete();
+		dir.delete();
+	}
+
+	/** Generates all the files of a single class to disk. */
+	@Benchmark
+	public void generate() throws IOException
+	{
+		JSONBase.generate("benchmark.json", conf, clazz, dir, 0, null);
+	}
+
+	/** Generates the Elasticsearch mapping, which recurses into the nested class. */
+	@Benchmark
+	public void elasticMapping()
+	{
+		new JSONElasticMapping(conf, clazz, discard).run();
+	}
+
+	/** Helper method - builds a configuration with a nested address class and a customer class that uses it. */
+	static String config(final int size) throws IOException
+	{
+		var types = new String[] { "String", "Long", "Integer", "Date", "Boolean", "Double" };
+		var customer = new ArrayList<Object>(size + 2);
+		customer.add(field("id", "String", "identifier", true));
+		for (int i = 0; i < size; i++)
+		{
+			var type = types[i % types.length];
+			customer.add(("Integer".equals(type) || "Long".equals(type)) ? field("field" + i, type, "min", 1, "max", 1000) : field("field" + i, type));
+		}
+		customer.add(field("address", "Address"));
+		customer.add(field("tags", "String", "container", "List"));
+
+		var address = new ArrayList<Object>();
+		address.add(field("street", "String"));
+		address.add(field("city", "String"));
+		address.add(field("postalCode", "String", "pattern", "\\d{5}"));
+
+		var conf = new LinkedHashMap<String, Object>();
+		conf.put("packageName", "com.acme.app.value");
+		conf.put("author", "benchmark");
+		conf.put("version", "1.0");
+		conf.put("classes", new Object[] {
+			clazz("Customer", customer),
+			clazz("Address", address) });
+
+		return new ObjectMapper().writeValueAsString(conf);
+	}
+
+	/** Helper method - creates a class definition that generates every artifact. */
+	private static Object clazz(final String name, final Object fields)
+	{
+		var o = new LinkedHashMap<String, Object>();
+		o.put("name", name);
+		o.put("plural", name + "s");
+		o.put("path", name.toLowerCase() + "s");
+		o.put("caption", name);
+		o.put("generateFilter", true);
+		o.put("generateElastic", true);
+		o.put("generateResource", true);
+		o.put("fields", fields);
+
+		return o;
+	}
+
+	/** Helper method - creates a field definition with optional property name/value pairs. */
+	private static Object field(final String name, final String type, final Object... properties)
+	{
+		var o = new LinkedHashMap<String, Object>();
+		o.put("name", name);
+		o.put("type", type);
+		for (int i = 0; i < properties.length; i+= 2) o.put((String) properties[i], properties[i + 1]);
+
+		return o;
+	}
+}